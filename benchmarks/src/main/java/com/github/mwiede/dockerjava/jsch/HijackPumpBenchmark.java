@@ -0,0 +1,89 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okio.Okio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Throughput of pumping the hijacked stdin of an attach or exec into the connection, see {@link StdinPump}. Each
+ * operation pumps {@link #TOTAL} bytes, which the input hands out in chunks of the given size. Interactive input has
+ * nothing more available after each chunk, like a terminal, so every chunk is flushed, while bulk input, like a piped
+ * file, is flushed in large blocks.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HijackPumpBenchmark {
+
+    static final int TOTAL = 1024 * 1024;
+
+    @Param({ "64", "1024", "16384", "65536" })
+    int chunkSize;
+
+    @Param({ "true", "false" })
+    boolean interactive;
+
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        data = new byte[TOTAL];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+    }
+
+    @Benchmark
+    public long pump() throws IOException {
+        return new StdinPump(new ChunkedInputStream(data, chunkSize, interactive), Okio.buffer(Okio.blackhole()))
+                .pump();
+    }
+
+    /**
+     * hands out at most one chunk per read, like a pipe
+     */
+    static final class ChunkedInputStream extends InputStream {
+
+        private final byte[] data;
+        private final int chunkSize;
+        private final boolean interactive;
+        private int position;
+
+        ChunkedInputStream(byte[] data, int chunkSize, boolean interactive) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+            this.interactive = interactive;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= data.length) {
+                return -1;
+            }
+            final int read = Math.min(Math.min(len, chunkSize), data.length - position);
+            System.arraycopy(data, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return interactive ? 0 : data.length - position;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import okhttp3.HttpUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Cost of turning docker-java's request into okhttp's one for every call, see
+ * {@link JschDockerHttpClient#toOkHttpRequest(HttpUrl, Request)}. The interesting number is the allocation per
+ * operation reported by the gc profiler.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RequestBuildingBenchmark {
+
+    private HttpUrl baseUrl;
+    private Request inspect;
+    private Request create;
+
+    @Setup
+    public void setUp() {
+        baseUrl = new HttpUrl.Builder().scheme("http").host("127.0.0.1").build();
+        inspect = Request.builder().method(Request.Method.GET).path("/v1.41/containers/4f2a9c1b/json")
+                .headers(Collections.singletonMap("Accept", "application/json"))
+                .build();
+        create = Request.builder().method(Request.Method.POST).path("/v1.41/containers/create?name=app")
+                .headers(Collections.singletonMap("Content-Type", "application/json"))
+                .bodyBytes("{\"Image\":\"alpine:3.19\",\"Cmd\":[\"sleep\",\"60\"]}".getBytes(StandardCharsets.UTF_8))
+                .build();
+    }
+
+    @Benchmark
+    public okhttp3.Request getWithoutBody() {
+        return JschDockerHttpClient.toOkHttpRequest(baseUrl, inspect);
+    }
+
+    @Benchmark
+    public okhttp3.Request postWithBody() {
+        return JschDockerHttpClient.toOkHttpRequest(baseUrl, create);
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.Okio;
+import okio.Source;
+import okio.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Throughput of draining a response body of the given size through {@link JschDockerHttpClient.OkResponse}, either by
+ * reading its stream into a buffer, as docker-java does, or by {@link TransferableResponse#transferTo(OutputStream,
+ * TransferListener)}. The body comes from an in-memory source, which hands out 8 KiB per read like a socket would.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ResponseBodyDrainBenchmark {
+
+    private static final int SOURCE_CHUNK = 8192;
+    private static final int READ_BUFFER = 8192;
+
+    @Param({ "16384", "1048576" })
+    int size;
+
+    private byte[] chunk;
+
+    @Setup
+    public void setUp() {
+        chunk = new byte[SOURCE_CHUNK];
+    }
+
+    @Benchmark
+    public long read(Blackhole blackhole) throws IOException {
+        final byte[] buffer = new byte[READ_BUFFER];
+        long total = 0;
+        try (InputStream body = response().getBody()) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                total += read;
+            }
+        }
+        blackhole.consume(buffer);
+        return total;
+    }
+
+    @Benchmark
+    public long transferTo(Blackhole blackhole) throws IOException {
+        final JschDockerHttpClient.OkResponse response = response();
+        try (InputStream ignored = response.getBody()) {
+            return response.transferTo(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    blackhole.consume(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    blackhole.consume(b);
+                }
+            }, null);
+        }
+    }
+
+    private JschDockerHttpClient.OkResponse response() {
+        final Response response = new Response.Builder()
+                .request(new okhttp3.Request.Builder().url("http://127.0.0.1/containers/abc/logs").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(null, size, Okio.buffer(new ChunkedSource(chunk, size))))
+                .build();
+        // the call is only needed for closing the response, which the benchmark does through the body
+        return new JschDockerHttpClient.OkResponse(null, response);
+    }
+
+    /**
+     * hands out at most one chunk per read, like a socket
+     */
+    static final class ChunkedSource implements Source {
+
+        private final byte[] chunk;
+        private long remaining;
+
+        ChunkedSource(byte[] chunk, long size) {
+            this.chunk = chunk;
+            this.remaining = size;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) {
+            if (remaining == 0) {
+                return -1;
+            }
+            final int read = (int) Math.min(Math.min(byteCount, chunk.length), remaining);
+            sink.write(chunk, 0, read);
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * a channel to the docker daemon was opened, see {@link FlightRecorderEvent}
+ */
+class ChannelOpenEvent extends FlightRecorderEvent {
+
+    String host;
+    String mode;
+    boolean success;
+    int retries;
+}
@@ -0,0 +1,193 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.ContainerPort;
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.ChannelDirectStreamLocal;
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Opens channels to the docker daemon in the configured mode, on the least loaded session of the pool.
+ */
+class ChannelOpener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelOpener.class);
+
+    private final SessionPool sessionPool;
+    private final SocatForwarder socatForwarder;
+    private final JschDockerConfig config;
+    private final ChannelTuner channelTuner;
+    private final TransportMetrics metrics;
+
+    ChannelOpener(SessionPool sessionPool, SocatForwarder socatForwarder, JschDockerConfig config) {
+        this.sessionPool = sessionPool;
+        this.socatForwarder = socatForwarder;
+        this.config = config;
+        this.channelTuner = new ChannelTuner(config);
+        this.metrics = config.getMetrics();
+    }
+
+    JschChannel open(int timeout) throws IOException {
+        final ChannelOpenEvent event = new ChannelOpenEvent();
+        event.begin();
+        try {
+            return open(timeout, event);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    private JschChannel open(int timeout, ChannelOpenEvent event) throws IOException {
+        final long start = System.nanoTime();
+        int attempts = sessionPool.getMaxSessions();
+        while (true) {
+            final JschChannel jschChannel;
+            final long acquireStart = System.nanoTime();
+            try {
+                jschChannel = new JschChannel(sessionPool, socatForwarder, sessionPool.acquire());
+                timed(RequestTimeline.Phase.SESSION, acquireStart);
+            } catch (JSchException e) {
+                metrics.channelOpenFailed(null, e);
+                throw new IOException(e);
+            } catch (IOException e) {
+                metrics.channelOpenFailed(null, e);
+                throw e;
+            }
+            try {
+                connect(jschChannel, timeout);
+                metrics.channelOpened(jschChannel.getMode(), System.nanoTime() - start);
+                describe(event, jschChannel);
+                event.success = true;
+                return jschChannel;
+            } catch (JSchException e) {
+                final Container failedForwarder = jschChannel.getSocatContainer();
+                final boolean channelOpenFailure = isChannelOpenFailure(jschChannel);
+                jschChannel.close();
+                if (--attempts > 0 && channelOpenFailure) {
+                    event.retries++;
+                    if (failedForwarder != null && forwarderWasDead(failedForwarder)) {
+                        logger.debug("socat forwarder is gone, retrying with a new one", e);
+                        continue;
+                    }
+                    // most likely sshd's MaxSessions was hit, so try another session
+                    sessionPool.markSaturated(jschChannel.getPooledSession());
+                    logger.debug("Channel open failed, retrying on another session", e);
+                    continue;
+                }
+                metrics.channelOpenFailed(jschChannel.getMode(), e);
+                describe(event, jschChannel);
+                throw new IOException(e);
+            } catch (IOException | RuntimeException e) {
+                jschChannel.close();
+                metrics.channelOpenFailed(jschChannel.getMode(), e);
+                describe(event, jschChannel);
+                throw e;
+            }
+        }
+    }
+
+    private static void describe(ChannelOpenEvent event, JschChannel jschChannel) {
+        event.host = jschChannel.getSession().getHost();
+        event.mode = jschChannel.getMode() != null ? jschChannel.getMode().name() : null;
+    }
+
+    private void connect(JschChannel jschChannel, int timeout) throws JSchException, IOException {
+        final Session session = jschChannel.getSession();
+        final Channel channel;
+        final TransportMode mode;
+        if (config.isUseTcp()) {
+            mode = TransportMode.TCP;
+            jschChannel.setMode(mode);
+            final int port = config.getTcpPort() != null ? config.getTcpPort() : 2375;
+            channel = session.getStreamForwarder("127.0.0.1", port);
+            logger.debug("Using channel direct-tcpip with 127.0.0.1:{}", port);
+        } else if (SocatForwarder.isRequired(config, session)) {
+            mode = TransportMode.SOCAT;
+            jschChannel.setMode(mode);
+            // forward docker socket via the socat container shared by all sockets
+            final long acquireStart = System.nanoTime();
+            final Container socatContainer = socatForwarder.acquire();
+            timed(RequestTimeline.Phase.SOCAT, acquireStart);
+            jschChannel.setSocatContainer(socatContainer);
+            final ContainerPort containerPort = socatContainer.getPorts()[0];
+            Objects.requireNonNull(containerPort);
+            channel = session.getStreamForwarder(containerPort.getIp(), containerPort.getPublicPort());
+            logger.debug("Using channel direct-tcpip with socat on port {}", containerPort.getPublicPort());
+        } else if (config.isUseSocket()) {
+            mode = TransportMode.UNIX_SOCKET;
+            jschChannel.setMode(mode);
+            // directly forward docker socket
+            channel = session.openChannel("direct-streamlocal@openssh.com");
+            ((ChannelDirectStreamLocal) channel).setSocketPath(config.getSocketPath());
+            logger.debug("Using channel direct-streamlocal on {}", config.getSocketPath());
+        } else {
+            // only 18.09 and up
+            mode = TransportMode.DIAL_STDIO;
+            jschChannel.setMode(mode);
+            channel = session.openChannel("exec");
+            ((ChannelExec) channel).setCommand(dialStdioCommand(config));
+            logger.debug("Using dialer command");
+        }
+        jschChannel.setChannel(channel);
+        final int inputBufferSize = channelTuner.apply(mode, channel, jschChannel.getPooledSession(), timeout);
+        // the session thread writes straight into the buffer, which is closed by jsch on eof
+        final RingBuffer inputBuffer = new RingBuffer(inputBufferSize);
+        if (metrics == TransportMetrics.NOOP) {
+            channel.setOutputStream(inputBuffer.getOutputStream());
+            jschChannel.setStreams(inputBuffer, channel.getOutputStream());
+        } else {
+            channel.setOutputStream(new CountingOutputStream(inputBuffer.getOutputStream(), metrics::bytesReceived));
+            jschChannel.setStreams(inputBuffer, new CountingOutputStream(channel.getOutputStream(), metrics::bytesSent));
+        }
+
+        final long connectStart = System.nanoTime();
+        channel.connect(timeout);
+        timed(RequestTimeline.Phase.CHANNEL_OPEN, connectStart);
+    }
+
+    static String dialStdioCommand(JschDockerConfig config) {
+        final String command = "docker system dial-stdio";
+        if (StringUtils.isNotEmpty(config.getAdditionalFileToSource())) {
+            return " source " + config.getAdditionalFileToSource() + " && " + command;
+        }
+        return command;
+    }
+
+    /**
+     * adds the phase to the timeline of the request, which is connecting on this thread, if there is one
+     */
+    private static void timed(RequestTimeline.Phase phase, long start) {
+        final RequestTimeline timeline = TimelineEventListener.connecting();
+        if (timeline != null) {
+            timeline.add(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * jsch does not distinguish the failure types, but a refused channel open leaves the channel closed while the
+     * session is still up
+     */
+    private static boolean isChannelOpenFailure(JschChannel jschChannel) {
+        final Channel channel = jschChannel.getChannel();
+        return channel != null && channel.isClosed() && jschChannel.getSession().isConnected();
+    }
+
+    private boolean forwarderWasDead(Container failedForwarder) throws IOException {
+        try {
+            return socatForwarder.verify(failedForwarder);
+        } catch (JSchException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * Flow control settings of the ssh channels carrying the http connections. The window is the amount of data the server
+ * may send before it has to wait for the client to acknowledge it, so a single connection transfers at most one window
+ * per round trip. On links with a high latency the defaults of jsch (1 MiB for exec channels, 128 KiB for
+ * direct-streamlocal and direct-tcpip) limit the throughput of large downloads like {@code docker save} or
+ * {@code copyArchiveFromContainer}.
+ * <p>
+ * A value of {@code 0} keeps the default of jsch.
+ */
+public final class ChannelSizing {
+
+    /**
+     * jsch drops packets larger than 256 KiB, leave room for padding and mac
+     */
+    public static final int MAX_PACKET_SIZE = 256 * 1024 - 4 * 1024;
+
+    private final int windowSize;
+    private final int packetSize;
+    private final int inputBufferSize;
+
+    /**
+     * @param windowSize      local window in bytes
+     * @param packetSize      maximum size of a data packet the server may send, in bytes
+     * @param inputBufferSize size of the buffer holding received data until it is read, in bytes. It is allocated for
+     *                        every connection and defaults to 256 KiB. jsch's session thread, which serves all
+     *                        channels of the session, blocks as soon as this buffer is full.
+     */
+    public ChannelSizing(int windowSize, int packetSize, int inputBufferSize) {
+        if (windowSize < 0 || packetSize < 0 || inputBufferSize < 0) {
+            throw new IllegalArgumentException("channel sizes must not be negative");
+        }
+        if (packetSize > MAX_PACKET_SIZE) {
+            throw new IllegalArgumentException("packetSize > " + MAX_PACKET_SIZE + ": " + packetSize);
+        }
+        if (windowSize > 0 && windowSize < packetSize) {
+            throw new IllegalArgumentException("windowSize must not be smaller than packetSize");
+        }
+        this.windowSize = windowSize;
+        this.packetSize = packetSize;
+        this.inputBufferSize = inputBufferSize;
+    }
+
+    /**
+     * @param windowSize local window in bytes
+     * @return sizing with the given window
+     */
+    public static ChannelSizing window(int windowSize) {
+        return new ChannelSizing(windowSize, 0, 0);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getPacketSize() {
+        return packetSize;
+    }
+
+    public int getInputBufferSize() {
+        return inputBufferSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelSizing{windowSize=" + windowSize + ", packetSize=" + packetSize + ", inputBufferSize="
+                + inputBufferSize + '}';
+    }
+}
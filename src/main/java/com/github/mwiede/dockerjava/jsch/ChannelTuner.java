@@ -0,0 +1,122 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link ChannelSizing} of a transport mode to a channel before it is connected. jsch does not expose the
+ * local window and packet size of a channel, so they are set by reflection. In auto mode the window is sized to the
+ * bandwidth-delay product, with the round trip time measured once per session.
+ */
+class ChannelTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelTuner.class);
+
+    static final int JSCH_EXEC_WINDOW_SIZE = 1024 * 1024;
+    static final int JSCH_FORWARDING_WINDOW_SIZE = 128 * 1024;
+    static final int MAX_AUTO_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final Method SET_LOCAL_WINDOW_SIZE_MAX = channelSetter("setLocalWindowSizeMax");
+    private static final Method SET_LOCAL_WINDOW_SIZE = channelSetter("setLocalWindowSize");
+    private static final Method SET_LOCAL_PACKET_SIZE = channelSetter("setLocalPacketSize");
+
+    private final JschDockerConfig config;
+
+    ChannelTuner(JschDockerConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * must be called before {@link Channel#connect()}
+     *
+     * @return capacity of the buffer for received data
+     */
+    int apply(TransportMode mode, Channel channel, SessionPool.PooledSession pooledSession, int timeout) {
+        final ChannelSizing sizing = config.getChannelSizing(mode);
+        int windowSize = sizing != null ? sizing.getWindowSize() : 0;
+        final int packetSize = sizing != null ? sizing.getPacketSize() : 0;
+
+        final long bandwidth = config.getAutoWindowBandwidth();
+        if (bandwidth > 0) {
+            final long roundTripNanos = roundTripNanos(pooledSession, timeout);
+            if (roundTripNanos > 0) {
+                final long bandwidthDelayProduct = bandwidth * roundTripNanos / TimeUnit.SECONDS.toNanos(1);
+                final int autoWindowSize = (int) Math.min(MAX_AUTO_WINDOW_SIZE, bandwidthDelayProduct);
+                windowSize = Math.max(windowSize > 0 ? windowSize : defaultWindowSize(mode), autoWindowSize);
+            }
+        }
+        if (windowSize > 0) {
+            windowSize = Math.max(windowSize, packetSize);
+        }
+
+        final int inputBufferSize = sizing != null && sizing.getInputBufferSize() > 0 ? sizing.getInputBufferSize()
+                : RingBuffer.DEFAULT_CAPACITY;
+
+        if (windowSize > 0) {
+            invoke(SET_LOCAL_WINDOW_SIZE_MAX, channel, windowSize);
+            invoke(SET_LOCAL_WINDOW_SIZE, channel, windowSize);
+        }
+        if (packetSize > 0) {
+            invoke(SET_LOCAL_PACKET_SIZE, channel, packetSize);
+        }
+        if (windowSize > 0 || packetSize > 0) {
+            logger.debug("{} channel with window {}, packet size {}, input buffer {}", mode, windowSize, packetSize,
+                    inputBufferSize);
+        }
+        return inputBufferSize;
+    }
+
+    static int defaultWindowSize(TransportMode mode) {
+        return mode == TransportMode.DIAL_STDIO ? JSCH_EXEC_WINDOW_SIZE : JSCH_FORWARDING_WINDOW_SIZE;
+    }
+
+    /**
+     * measured once per session, the {@link SessionSupervisor} keeps it up to date, if probing is enabled
+     */
+    private static long roundTripNanos(SessionPool.PooledSession pooledSession, int timeout) {
+        final long known = pooledSession.getRoundTripNanos();
+        if (known > 0) {
+            return known;
+        }
+        final Session session = pooledSession.getSession();
+        try {
+            final long roundTripNanos = SessionSupervisor.measureRoundTrip(session, timeout);
+            pooledSession.setRoundTripNanos(roundTripNanos);
+            logger.debug("Measured round trip time of {} ms to {}", TimeUnit.NANOSECONDS.toMillis(roundTripNanos),
+                    session.getHost());
+            return roundTripNanos;
+        } catch (JSchException e) {
+            logger.debug("Failed to measure round trip time, keeping the window size", e);
+            return -1;
+        }
+    }
+
+    private static void invoke(Method setter, Channel channel, int value) {
+        if (setter == null) {
+            return;
+        }
+        try {
+            setter.invoke(channel, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            logger.warn("Failed to call {} on {}", setter.getName(), channel, e);
+        }
+    }
+
+    private static Method channelSetter(String name) {
+        try {
+            final Method method = Channel.class.getDeclaredMethod(name, int.class);
+            method.setAccessible(true);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Channel sizing is not supported by this version of jsch, {} is not accessible", name, e);
+            return null;
+        }
+    }
+}
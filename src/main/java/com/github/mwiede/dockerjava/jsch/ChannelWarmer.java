@@ -0,0 +1,198 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps channels open ahead of demand, so that a new connection does not have to wait for the channel open and, in the
+ * default mode, the spawn of {@code docker system dial-stdio}. Whenever the number of ready channels falls below the
+ * low-watermark, it is topped up in the background.
+ * <p>
+ * Like idle connections, ready channels are closed after the keep-alive duration. They are not replaced until the next
+ * connection takes a channel, so an idle client does not keep reopening them. After a channel failed to open, topping
+ * up is suspended for a backoff, which doubles with each further failure.
+ */
+class ChannelWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelWarmer.class);
+
+    private static final class ReadyChannel {
+
+        private final JschChannel channel;
+        private final long readySince = System.nanoTime();
+
+        ReadyChannel(JschChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final ChannelOpener channelOpener;
+    private final int lowWatermark;
+    private final int connectTimeout;
+    private final long maxIdleNanos;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final ScheduledThreadPoolExecutor executor;
+
+    // guarded by this
+    private final Deque<ReadyChannel> ready = new ArrayDeque<>();
+    private int opening;
+    private boolean closed;
+    private boolean expiryScheduled;
+    private long backoffNanos;
+    private long suspendedUntil = System.nanoTime();
+
+    /**
+     * @param maxIdle    time a channel is kept ready
+     * @param minBackoff suspension of topping up after the first failure to open a channel
+     * @param maxBackoff maximum suspension after consecutive failures
+     */
+    ChannelWarmer(ChannelOpener channelOpener, int lowWatermark, int connectTimeout, Duration maxIdle,
+            Duration minBackoff, Duration maxBackoff) {
+        this.channelOpener = channelOpener;
+        this.lowWatermark = lowWatermark;
+        this.connectTimeout = connectTimeout;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.minBackoffNanos = minBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, lowWatermark), r -> {
+            final Thread thread = new Thread(r, "jsch-channel-warmer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * opens the given number of channels and waits until they are ready. Failures are only logged, since a cold channel
+     * is opened on demand anyway.
+     */
+    void warmUp(int channels) {
+        final List<Future<?>> futures = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < channels; i++) {
+                opening++;
+                futures.add(executor.submit(this::openOne));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.debug("Failed to warm up channel", e.getCause());
+            }
+        }
+        logger.debug("Warmed up {} channels", readyChannels());
+    }
+
+    /**
+     * @return a ready channel or {@code null}, if there is none
+     */
+    JschChannel poll() {
+        ReadyChannel readyChannel;
+        final List<JschChannel> stale = new ArrayList<>();
+        synchronized (this) {
+            while ((readyChannel = ready.pollFirst()) != null && !readyChannel.channel.isUsable()) {
+                stale.add(readyChannel.channel);
+            }
+            refill();
+        }
+        stale.forEach(JschChannel::close);
+        return readyChannel != null ? readyChannel.channel : null;
+    }
+
+    synchronized int readyChannels() {
+        return ready.size();
+    }
+
+    void close() {
+        final List<JschChannel> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            ready.forEach(readyChannel -> toClose.add(readyChannel.channel));
+            ready.clear();
+        }
+        executor.shutdownNow();
+        toClose.forEach(JschChannel::close);
+    }
+
+    // guarded by this
+    private void refill() {
+        if (closed || System.nanoTime() - suspendedUntil < 0) {
+            return;
+        }
+        for (int missing = lowWatermark - ready.size() - opening; missing > 0; missing--) {
+            opening++;
+            executor.execute(this::openOne);
+        }
+    }
+
+    private void openOne() {
+        JschChannel channel = null;
+        try {
+            channel = channelOpener.open(connectTimeout);
+        } catch (Exception e) {
+            logger.debug("Failed to open channel ahead of demand", e);
+        } finally {
+            synchronized (this) {
+                opening--;
+                if (channel == null) {
+                    backoffNanos = backoffNanos == 0 ? minBackoffNanos : Math.min(backoffNanos * 2, maxBackoffNanos);
+                    suspendedUntil = System.nanoTime() + backoffNanos;
+                } else if (!closed) {
+                    backoffNanos = 0;
+                    ready.addLast(new ReadyChannel(channel));
+                    channel = null;
+                    scheduleExpiry();
+                }
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    // guarded by this
+    private void scheduleExpiry() {
+        final ReadyChannel oldest = ready.peekFirst();
+        if (expiryScheduled || oldest == null || closed) {
+            return;
+        }
+        expiryScheduled = true;
+        executor.schedule(this::expire, oldest.readySince + maxIdleNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private void expire() {
+        final List<JschChannel> expired = new ArrayList<>();
+        synchronized (this) {
+            expiryScheduled = false;
+            final long now = System.nanoTime();
+            // ready is ordered by age, since channels are added at its end
+            ReadyChannel oldest;
+            while ((oldest = ready.peekFirst()) != null && now - oldest.readySince >= maxIdleNanos) {
+                expired.add(ready.pollFirst().channel);
+            }
+            scheduleExpiry();
+        }
+        if (!expired.isEmpty()) {
+            logger.debug("Closing {} channels, which were ready for too long", expired.size());
+        }
+        expired.forEach(JschChannel::close);
+    }
+}
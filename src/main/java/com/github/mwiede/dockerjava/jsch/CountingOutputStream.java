@@ -0,0 +1,34 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Reports the number of bytes of each write, which is passed on unchanged.
+ */
+class CountingOutputStream extends FilterOutputStream {
+
+    private final LongConsumer bytesWritten;
+
+    CountingOutputStream(OutputStream out, LongConsumer bytesWritten) {
+        super(out);
+        this.bytesWritten = bytesWritten;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        bytesWritten.accept(1);
+    }
+
+    /**
+     * passed on as a whole, FilterOutputStream would write byte by byte
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        bytesWritten.accept(len);
+    }
+}
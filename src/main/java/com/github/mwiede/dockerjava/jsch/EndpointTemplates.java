@@ -0,0 +1,51 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Turns request paths into endpoint templates like {@code /containers/{id}/json}, so that metrics per endpoint do not
+ * get one series per container.
+ */
+final class EndpointTemplates {
+
+    // collections, whose second segment is the id or name of an object
+    private static final Set<String> BY_ID = new HashSet<>(Arrays.asList("containers", "exec", "networks", "volumes",
+            "services", "nodes", "tasks", "secrets", "configs"));
+
+    // collections, whose object names may contain slashes, like the name of an image
+    private static final Set<String> BY_NAME = new HashSet<>(Arrays.asList("images", "distribution", "plugins"));
+
+    // endpoints of the collection itself
+    private static final Set<String> COLLECTION_ENDPOINTS = new HashSet<>(Arrays.asList("json", "create", "prune",
+            "search", "load", "get", "pull", "privileges"));
+
+    // endpoints following the name of an image, distribution or plugin
+    private static final Set<String> NAME_ENDPOINTS = new HashSet<>(Arrays.asList("json", "history", "push", "tag",
+            "get", "enable", "disable", "upgrade", "set"));
+
+    private EndpointTemplates() {
+    }
+
+    static String of(String path) {
+        final String normalized = LaneRouter.normalize(path);
+        final String[] segments = normalized.split("/");
+        // segments[0] is empty, as the path starts with a slash
+        if (segments.length < 3 || COLLECTION_ENDPOINTS.contains(segments[2])) {
+            return normalized;
+        }
+        final String collection = segments[1];
+        if (BY_NAME.contains(collection)) {
+            final String last = segments[segments.length - 1];
+            return segments.length > 3 && NAME_ENDPOINTS.contains(last)
+                    ? "/" + collection + "/{name}/" + last
+                    : "/" + collection + "/{name}";
+        }
+        if (BY_ID.contains(collection)) {
+            segments[2] = "{id}";
+            return String.join("/", segments);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * Java 8 stand-in for {@code jdk.jfr.Event}, which does nothing. The events extending it have a variant for Java 11 and
+ * later in {@code src/main/java11}, which extends {@code jdk.jfr.Event} instead and is packaged in
+ * {@code META-INF/versions/11} of the multi-release jar. Both variants must have the same fields.
+ */
+class FlightRecorderEvent {
+
+    void begin() {
+    }
+
+    void end() {
+    }
+
+    void commit() {
+    }
+
+    boolean isEnabled() {
+        return false;
+    }
+
+    boolean shouldCommit() {
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * default executors for the threads, which pump the stdin of hijacked requests
+ */
+final class HijackExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(HijackExecutors.class);
+
+    static final int DEFAULT_MAX_PUMPS = 256;
+
+    private HijackExecutors() {
+    }
+
+    /**
+     * virtual threads on java 21 and up, otherwise a bounded pool of daemon threads
+     *
+     * @param maxPumps maximum number of concurrent pumps on platform threads
+     */
+    static ExecutorService newDefault(int maxPumps) {
+        final ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        return newPlatformThreadPool(maxPumps);
+    }
+
+    static ExecutorService newPlatformThreadPool(int maxPumps) {
+        final AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(0, maxPumps, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            final Thread thread = new Thread(r, "jsch-hijack-streaming-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("virtual threads not available", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * stdin of an attach or exec was pumped into the connection, see {@link FlightRecorderEvent}
+ */
+class HijackPumpEvent extends FlightRecorderEvent {
+
+    String path;
+    long bytes;
+}
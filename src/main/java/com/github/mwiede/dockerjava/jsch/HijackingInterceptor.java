@@ -4,16 +4,36 @@ import com.github.dockerjava.transport.DockerHttpClient;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import okhttp3.internal.connection.Exchange;
 import okhttp3.internal.http.RealInterceptorChain;
 import okhttp3.internal.ws.RealWebSocket;
-import okio.BufferedSink;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 class HijackingInterceptor implements Interceptor {
 
+    private static final Logger logger = LoggerFactory.getLogger(HijackingInterceptor.class);
+
+    private final ExecutorService executorService;
+    private final TransportMetrics metrics;
+    private final AtomicInteger activePumps = new AtomicInteger();
+
+    HijackingInterceptor(ExecutorService executorService, TransportMetrics metrics) {
+        this.executorService = executorService;
+        this.metrics = metrics;
+    }
+
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
@@ -39,23 +59,62 @@ class HijackingInterceptor implements Interceptor {
 
         Exchange exchange = ((RealInterceptorChain) chain).exchange();
         RealWebSocket.Streams streams = exchange.newWebSocketStreams();
-        Thread thread = new Thread(() -> {
-            try (BufferedSink sink = streams.sink) {
-                while (sink.isOpen()) {
-                    int aByte = stdin.read();
-                    if (aByte < 0) {
-                        break;
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        try {
+            executorService.execute(() -> {
+                activePumps.incrementAndGet();
+                final HijackPumpEvent event = new HijackPumpEvent();
+                event.begin();
+                final long start = System.nanoTime();
+                try {
+                    event.bytes = new StdinPump(stdin, streams.sink).pump();
+                    metrics.hijackPumped(event.bytes, System.nanoTime() - start);
+                } catch (Exception e) {
+                    logger.debug("Failed to pump stdin of {}", originalRequest.path(), e);
+                    metrics.hijackPumpFailed(e);
+                    failure.set(e);
+                } finally {
+                    activePumps.decrementAndGet();
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.path = originalRequest.path();
+                        event.commit();
                     }
-                    sink.writeByte(aByte);
-                    sink.flush();
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            });
+        } catch (RejectedExecutionException e) {
+            response.close();
+            throw new IOException("Too many hijacked streams, no thread left to pump stdin", e);
+        }
+        return withPumpFailure(response, failure);
+    }
+
+    int getActivePumps() {
+        return activePumps.get();
+    }
+
+    /**
+     * a failure reading the caller's stdin fails the response at its end, instead of getting lost in the pump's
+     * thread. Output, which arrived before, is still delivered.
+     */
+    private static Response withPumpFailure(Response response, AtomicReference<Exception> failure) {
+        final ResponseBody body = response.body();
+        if (body == null) {
+            return response;
+        }
+        final ForwardingSource source = new ForwardingSource(body.source()) {
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                final long read = super.read(sink, byteCount);
+                final Exception e = failure.get();
+                if (read == -1 && e != null) {
+                    throw new IOException("Failed to pump stdin", e);
+                }
+                return read;
             }
-        });
-        thread.setName("jsch-hijack-streaming-" + System.identityHashCode(request));
-        thread.setDaemon(true);
-        thread.start();
-        return response;
+        };
+        return response.newBuilder()
+                .body(ResponseBody.create(body.contentType(), body.contentLength(), Okio.buffer(source)))
+                .build();
     }
 }
@@ -0,0 +1,60 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Retries idempotent requests, which failed with an I/O error, e.g. because their ssh session went away. The retry
+ * gets a channel on the session the {@link SessionSupervisor} connected meanwhile. okhttp itself only retries, when a
+ * connection failed before the response started, and it does not know about the session underneath.
+ */
+class IdempotentRetryInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentRetryInterceptor.class);
+
+    static final int MAX_RETRIES = 1;
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(
+            Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS"));
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        for (int attempt = 0;; attempt++) {
+            try {
+                return chain.proceed(request);
+            } catch (IOException e) {
+                if (attempt >= MAX_RETRIES || !isRetryable(request, e) || chain.call().isCanceled()) {
+                    throw e;
+                }
+                logger.debug("Retrying {} {} after {}", request.method(), request.url().encodedPath(), e.toString());
+            }
+        }
+    }
+
+    /**
+     * timeouts are not retried, the daemon is slow rather than gone. Streamed bodies and stdin can only be sent once.
+     */
+    static boolean isRetryable(Request request, IOException e) {
+        if (e instanceof InterruptedIOException || !IDEMPOTENT_METHODS.contains(request.method())) {
+            return false;
+        }
+        final RequestBody body = request.body();
+        if (body != null && body.isOneShot()) {
+            return false;
+        }
+        final DockerHttpClient.Request originalRequest = request.tag(DockerHttpClient.Request.class);
+        return originalRequest == null || originalRequest.hijackedInput() == null;
+    }
+}
@@ -1,24 +1,22 @@
 package com.github.mwiede.dockerjava.jsch;
 
-import com.jcraft.jsch.Session;
-
 import javax.net.SocketFactory;
 import java.net.InetAddress;
 import java.net.Socket;
 
 public class JSchSocketFactory extends SocketFactory {
 
-    private final Session session;
-    private final JschDockerConfig config;
+    private final ChannelOpener channelOpener;
+    private final ChannelWarmer channelWarmer;
 
-    JSchSocketFactory(Session session, JschDockerConfig config) {
-        this.session = session;
-        this.config = config;
+    JSchSocketFactory(ChannelOpener channelOpener, ChannelWarmer channelWarmer) {
+        this.channelOpener = channelOpener;
+        this.channelWarmer = channelWarmer;
     }
 
     @Override
     public Socket createSocket() {
-        return new JschSocket(session, config);
+        return new JschSocket(channelOpener, channelWarmer);
     }
 
     @Override
@@ -0,0 +1,153 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.api.model.Container;
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.Session;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A channel to the docker daemon together with what it holds on to: its share of a pooled session and, in socat mode,
+ * a reference to the forwarder.
+ */
+class JschChannel {
+
+    private final SessionPool sessionPool;
+    private final SocatForwarder socatForwarder;
+    private final SessionPool.PooledSession pooledSession;
+
+    private Channel channel;
+    private TransportMode mode;
+    private Container socatContainer;
+    private RingBuffer inputBuffer;
+    private OutputStream outputStream;
+    private boolean closed;
+
+    JschChannel(SessionPool sessionPool, SocatForwarder socatForwarder, SessionPool.PooledSession pooledSession) {
+        this.sessionPool = sessionPool;
+        this.socatForwarder = socatForwarder;
+        this.pooledSession = pooledSession;
+    }
+
+    Session getSession() {
+        return pooledSession.getSession();
+    }
+
+    SessionPool.PooledSession getPooledSession() {
+        return pooledSession;
+    }
+
+    Channel getChannel() {
+        return channel;
+    }
+
+    void setChannel(Channel channel) {
+        this.channel = channel;
+    }
+
+    TransportMode getMode() {
+        return mode;
+    }
+
+    void setMode(TransportMode mode) {
+        this.mode = mode;
+    }
+
+    Container getSocatContainer() {
+        return socatContainer;
+    }
+
+    void setSocatContainer(Container socatContainer) {
+        this.socatContainer = socatContainer;
+    }
+
+    InputStream getInputStream() {
+        return inputBuffer.getInputStream();
+    }
+
+    OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    void setStreams(RingBuffer inputBuffer, OutputStream outputStream) {
+        this.inputBuffer = inputBuffer;
+        this.outputStream = new ChannelOutputStream(outputStream);
+    }
+
+    /**
+     * @param timeoutMillis maximum time a read waits for data, 0 waits forever
+     */
+    void setReadTimeout(int timeoutMillis) {
+        inputBuffer.setTimeout(timeoutMillis);
+    }
+
+    boolean isConnected() {
+        return channel != null && channel.isConnected();
+    }
+
+    boolean isClosed() {
+        return channel != null && (channel.isClosed() || !getSession().isConnected());
+    }
+
+    boolean isEOF() {
+        return channel != null && channel.isEOF();
+    }
+
+    /**
+     * whether the channel can still carry a new connection
+     */
+    boolean isUsable() {
+        return isConnected() && !isClosed() && !isEOF();
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (socatContainer != null) {
+            socatForwarder.release(socatContainer);
+        }
+        if (channel != null) {
+            channel.disconnect();
+        }
+        sessionPool.release(pooledSession);
+    }
+
+    /**
+     * jsch silently drops data written to a channel, which the remote end closed, so writers would never notice
+     */
+    private final class ChannelOutputStream extends FilterOutputStream {
+
+        ChannelOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            out.flush();
+        }
+
+        private void ensureOpen() throws IOException {
+            if (isClosed()) {
+                throw new IOException("channel is broken");
+            }
+        }
+    }
+}
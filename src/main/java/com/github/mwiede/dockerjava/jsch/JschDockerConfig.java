@@ -7,11 +7,27 @@ import okhttp3.Interceptor;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 class JschDockerConfig {
 
     static final String VAR_RUN_DOCKER_SOCK = "/var/run/docker.sock";
+    static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    static final Duration DEFAULT_KEEP_ALIVE = Duration.ofMinutes(1);
+    static final int DEFAULT_SESSION_POOL_SIZE = 1;
+    static final Duration DEFAULT_SESSION_SATURATION_BACKOFF = Duration.ofSeconds(30);
+    // 100 Mbit/s
+    static final long DEFAULT_AUTO_WINDOW_BANDWIDTH = 12_500_000L;
+    // MaxSessions of OpenSSH
+    static final int DEFAULT_CHANNELS_PER_SESSION = 10;
+    static final Duration DEFAULT_MIN_RECONNECT_BACKOFF = Duration.ofSeconds(1);
+    static final Duration DEFAULT_MAX_RECONNECT_BACKOFF = Duration.ofMinutes(1);
+    static final Duration DEFAULT_SHARED_SESSION_IDLE_TIMEOUT = Duration.ofMinutes(5);
 
     private String socketPath = VAR_RUN_DOCKER_SOCK;
     private Session session;
@@ -26,6 +42,28 @@ class JschDockerConfig {
     private UserInfo userInfo;
     private IdentityRepository identityRepository;
     private String additionalFileToSource;
+    private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private Duration keepAliveDuration = DEFAULT_KEEP_ALIVE;
+    private int sessionPoolSize = DEFAULT_SESSION_POOL_SIZE;
+    private Duration sessionSaturationBackoff = DEFAULT_SESSION_SATURATION_BACKOFF;
+    private ExecutorService hijackExecutor;
+    private int warmUpChannels;
+    private int warmUpLowWatermark;
+    private final Map<TransportMode, ChannelSizing> channelSizing = new EnumMap<>(TransportMode.class);
+    private long autoWindowBandwidth;
+    private boolean bulkLane;
+    private Integer maxRequests;
+    private Integer maxRequestsPerHost;
+    private boolean bulkLaneCompression;
+    private Duration serverAliveInterval = Duration.ZERO;
+    private Duration minReconnectBackoff = DEFAULT_MIN_RECONNECT_BACKOFF;
+    private Duration maxReconnectBackoff = DEFAULT_MAX_RECONNECT_BACKOFF;
+    private Duration sharedSessionIdleTimeout;
+    private Integer maxSharedSessions;
+    private TransportMetrics metrics = TransportMetrics.NOOP;
+    private Consumer<RequestTimeline> requestTimelineSink;
+    private Duration slowRequestThreshold;
+    private Duration autoSelectTtl;
 
     public Integer getTcpPort() {
         return tcpPort;
@@ -133,4 +171,180 @@ class JschDockerConfig {
     public void setAdditionalFileToSource(String additionalFileToSource) {
         this.additionalFileToSource = additionalFileToSource;
     }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Duration getKeepAliveDuration() {
+        return keepAliveDuration;
+    }
+
+    public void setKeepAliveDuration(Duration keepAliveDuration) {
+        this.keepAliveDuration = keepAliveDuration;
+    }
+
+    public int getSessionPoolSize() {
+        return sessionPoolSize;
+    }
+
+    public void setSessionPoolSize(int sessionPoolSize) {
+        this.sessionPoolSize = sessionPoolSize;
+    }
+
+    public Duration getSessionSaturationBackoff() {
+        return sessionSaturationBackoff;
+    }
+
+    public void setSessionSaturationBackoff(Duration sessionSaturationBackoff) {
+        this.sessionSaturationBackoff = sessionSaturationBackoff;
+    }
+
+    public ExecutorService getHijackExecutor() {
+        return hijackExecutor;
+    }
+
+    public void setHijackExecutor(ExecutorService hijackExecutor) {
+        this.hijackExecutor = hijackExecutor;
+    }
+
+    public int getWarmUpChannels() {
+        return warmUpChannels;
+    }
+
+    public void setWarmUpChannels(int warmUpChannels) {
+        this.warmUpChannels = warmUpChannels;
+    }
+
+    public int getWarmUpLowWatermark() {
+        return warmUpLowWatermark;
+    }
+
+    public void setWarmUpLowWatermark(int warmUpLowWatermark) {
+        this.warmUpLowWatermark = warmUpLowWatermark;
+    }
+
+    public ChannelSizing getChannelSizing(TransportMode mode) {
+        return channelSizing.get(mode);
+    }
+
+    public void setChannelSizing(TransportMode mode, ChannelSizing sizing) {
+        this.channelSizing.put(mode, sizing);
+    }
+
+    public long getAutoWindowBandwidth() {
+        return autoWindowBandwidth;
+    }
+
+    public void setAutoWindowBandwidth(long autoWindowBandwidth) {
+        this.autoWindowBandwidth = autoWindowBandwidth;
+    }
+
+    public boolean isBulkLane() {
+        return bulkLane;
+    }
+
+    public void setBulkLane(boolean bulkLane) {
+        this.bulkLane = bulkLane;
+    }
+
+    public boolean isBulkLaneCompression() {
+        return bulkLaneCompression;
+    }
+
+    public void setBulkLaneCompression(boolean bulkLaneCompression) {
+        this.bulkLaneCompression = bulkLaneCompression;
+    }
+
+    public Integer getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(Integer maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public Integer getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public void setMaxRequestsPerHost(Integer maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    public Duration getServerAliveInterval() {
+        return serverAliveInterval;
+    }
+
+    public void setServerAliveInterval(Duration serverAliveInterval) {
+        this.serverAliveInterval = serverAliveInterval;
+    }
+
+    public Duration getMinReconnectBackoff() {
+        return minReconnectBackoff;
+    }
+
+    public void setMinReconnectBackoff(Duration minReconnectBackoff) {
+        this.minReconnectBackoff = minReconnectBackoff;
+    }
+
+    public Duration getMaxReconnectBackoff() {
+        return maxReconnectBackoff;
+    }
+
+    public void setMaxReconnectBackoff(Duration maxReconnectBackoff) {
+        this.maxReconnectBackoff = maxReconnectBackoff;
+    }
+
+    public Duration getSharedSessionIdleTimeout() {
+        return sharedSessionIdleTimeout;
+    }
+
+    public void setSharedSessionIdleTimeout(Duration sharedSessionIdleTimeout) {
+        this.sharedSessionIdleTimeout = sharedSessionIdleTimeout;
+    }
+
+    public Integer getMaxSharedSessions() {
+        return maxSharedSessions;
+    }
+
+    public void setMaxSharedSessions(Integer maxSharedSessions) {
+        this.maxSharedSessions = maxSharedSessions;
+    }
+
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(TransportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Consumer<RequestTimeline> getRequestTimelineSink() {
+        return requestTimelineSink;
+    }
+
+    public void setRequestTimelineSink(Consumer<RequestTimeline> requestTimelineSink) {
+        this.requestTimelineSink = requestTimelineSink;
+    }
+
+    public Duration getSlowRequestThreshold() {
+        return slowRequestThreshold;
+    }
+
+    public void setSlowRequestThreshold(Duration slowRequestThreshold) {
+        this.slowRequestThreshold = slowRequestThreshold;
+    }
+
+    public Duration getAutoSelectTtl() {
+        return autoSelectTtl;
+    }
+
+    public void setAutoSelectTtl(Duration autoSelectTtl) {
+        this.autoSelectTtl = autoSelectTtl;
+    }
 }
@@ -0,0 +1,436 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import okhttp3.Call;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs the same request against many docker hosts in parallel. A client per host is built on first use and closed,
+ * when it was not used for the idle timeout. At most {@link Builder#maxConcurrency(int)} requests run at a time over all
+ * hosts, and each host has to answer within {@link Builder#hostTimeout(Duration)}, so a sweep over the fleet takes about
+ * as long as the slowest host.
+ * <pre>
+ * try (JschDockerFleet fleet = new JschDockerFleet.Builder()
+ *         .clientBuilder(host -&gt; new JschDockerHttpClient.Builder().identityFile(key))
+ *         .build()) {
+ *     fleet.execute(hosts, request, result -&gt; ...).join();
+ * }
+ * </pre>
+ */
+public final class JschDockerFleet implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JschDockerFleet.class);
+
+    static final int DEFAULT_MAX_CONCURRENCY = 32;
+    static final Duration DEFAULT_HOST_TIMEOUT = Duration.ofSeconds(30);
+    static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    public static final class Builder {
+
+        private Function<URI, JschDockerHttpClient.Builder> clientBuilder = host -> new JschDockerHttpClient.Builder();
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private Duration hostTimeout = DEFAULT_HOST_TIMEOUT;
+        private Duration idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+        /**
+         * configures the client of a host, the docker host is set by the fleet. If no connect timeout is set, the host
+         * timeout is used.
+         *
+         * @param clientBuilder
+         * @return
+         */
+        public Builder clientBuilder(Function<URI, JschDockerHttpClient.Builder> clientBuilder) {
+            this.clientBuilder = Objects.requireNonNull(clientBuilder, "clientBuilder");
+            return this;
+        }
+
+        /**
+         * maximum number of requests running at a time over all hosts, defaults to
+         * {@value JschDockerFleet#DEFAULT_MAX_CONCURRENCY}
+         *
+         * @param maxConcurrency
+         * @return
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency < 1: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * time a host has to answer, including the ssh handshake of a new client and reading the response body,
+         * defaults to {@link JschDockerFleet#DEFAULT_HOST_TIMEOUT}. A request, which timed out, is cancelled, the
+         * client of the host is kept for other requests. A handshake is not cancelled, it ends after the connect
+         * timeout.
+         *
+         * @param hostTimeout
+         * @return
+         */
+        public Builder hostTimeout(Duration hostTimeout) {
+            Objects.requireNonNull(hostTimeout, "hostTimeout");
+            if (hostTimeout.isNegative() || hostTimeout.isZero()) {
+                throw new IllegalArgumentException("hostTimeout <= 0: " + hostTimeout);
+            }
+            this.hostTimeout = hostTimeout;
+            return this;
+        }
+
+        /**
+         * time the client of a host is kept after its last request, defaults to
+         * {@link JschDockerFleet#DEFAULT_IDLE_TIMEOUT}
+         *
+         * @param idleTimeout
+         * @return
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            Objects.requireNonNull(idleTimeout, "idleTimeout");
+            if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("idleTimeout <= 0: " + idleTimeout);
+            }
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public JschDockerFleet build() {
+            return new JschDockerFleet(this);
+        }
+    }
+
+    /**
+     * outcome of the request on one host. The response body is read completely, so this is meant for api calls like
+     * {@code /containers/json}, {@code /info} or {@code /system/df}.
+     */
+    public static final class HostResult {
+
+        private final URI host;
+        private final int statusCode;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final Throwable failure;
+        private final Duration elapsed;
+
+        HostResult(URI host, int statusCode, Map<String, List<String>> headers, byte[] body, Throwable failure,
+                Duration elapsed) {
+            this.host = host;
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+            this.failure = failure;
+            this.elapsed = elapsed;
+        }
+
+        public URI getHost() {
+            return host;
+        }
+
+        /**
+         * @return http status or -1, if the request failed
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * @return cause of the failure, a {@link TimeoutException} if the host did not answer in time, or {@code null}
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * @return whether the host answered with a 2xx status
+         */
+        public boolean isSuccessful() {
+            return failure == null && statusCode >= 200 && statusCode < 300;
+        }
+
+        @Override
+        public String toString() {
+            return host + ": " + (failure != null ? failure.toString() : statusCode) + " in " + elapsed.toMillis()
+                    + " ms";
+        }
+    }
+
+    private static final class HostClient {
+
+        // held during the handshake, the fields are guarded by the monitor
+        private final Lock connecting = new ReentrantLock();
+        private volatile JschDockerHttpClient client;
+        private int inUse;
+        private long lastUsed = System.nanoTime();
+    }
+
+    private final Function<URI, JschDockerHttpClient.Builder> clientBuilder;
+    private final long hostTimeoutMillis;
+    private final long idleTimeoutNanos;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<URI, HostClient> clients = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private JschDockerFleet(Builder builder) {
+        this.clientBuilder = builder.clientBuilder;
+        this.hostTimeoutMillis = builder.hostTimeout.toMillis();
+        this.idleTimeoutNanos = builder.idleTimeout.toNanos();
+        final AtomicInteger counter = new AtomicInteger();
+        // one thread per request in flight, further hosts wait in the queue
+        this.workers = new ThreadPoolExecutor(builder.maxConcurrency, builder.maxConcurrency, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), r -> {
+                    final Thread thread = new Thread(r, "jsch-fleet-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jsch-fleet-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        final long sweepMillis = Math.max(1, builder.idleTimeout.toMillis() / 2);
+        scheduler.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * runs the request against all hosts. Requests with a body can only be sent to one host, since the body stream is
+     * consumed.
+     *
+     * @param onResult called for each host as soon as its result is there, from different threads
+     * @return future completed, when all hosts answered or timed out
+     */
+    public CompletableFuture<Void> execute(Collection<URI> hosts, DockerHttpClient.Request request,
+            Consumer<HostResult> onResult) {
+        Objects.requireNonNull(onResult, "onResult");
+        final List<CompletableFuture<HostResult>> results = new ArrayList<>();
+        for (URI host : hosts) {
+            results.add(execute(host, request).whenComplete((result, e) -> {
+                try {
+                    onResult.accept(result);
+                } catch (RuntimeException callbackFailure) {
+                    LOGGER.warn("Result callback failed for {}", host, callbackFailure);
+                }
+            }));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * runs the request against one host
+     *
+     * @return future completed with the result, never exceptionally
+     */
+    public CompletableFuture<HostResult> execute(URI host, DockerHttpClient.Request request) {
+        final CompletableFuture<HostResult> result = new CompletableFuture<>();
+        if (closed) {
+            result.complete(new HostResult(host, -1, Collections.emptyMap(), null,
+                    new IllegalStateException("fleet is closed"), Duration.ZERO));
+            return result;
+        }
+        try {
+            workers.execute(() -> run(host, request, result));
+        } catch (RejectedExecutionException e) {
+            result.complete(new HostResult(host, -1, Collections.emptyMap(), null,
+                    new IllegalStateException("fleet is closed"), Duration.ZERO));
+        }
+        return result;
+    }
+
+    /**
+     * @return number of hosts with an open client
+     */
+    public int getConnectedHosts() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        for (URI host : new ArrayList<>(clients.keySet())) {
+            closeClient(host);
+        }
+    }
+
+    private void run(URI host, DockerHttpClient.Request request, CompletableFuture<HostResult> result) {
+        final long start = System.nanoTime();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final AtomicReference<Call> inFlight = new AtomicReference<>();
+        final ScheduledFuture<?> watchdog = scheduler.schedule(() -> {
+            timedOut.set(true);
+            result.complete(new HostResult(host, -1, Collections.emptyMap(), null,
+                    new TimeoutException(host + " did not answer within " + hostTimeoutMillis + " ms"),
+                    Duration.ofNanos(System.nanoTime() - start)));
+            // only aborts this request, others share the client
+            final Call call = inFlight.get();
+            if (call != null) {
+                call.cancel();
+            }
+        }, hostTimeoutMillis, TimeUnit.MILLISECONDS);
+        HostClient hostClient = null;
+        try {
+            hostClient = lease(host);
+            final Call call = hostClient.client.newCall(request);
+            inFlight.set(call);
+            if (timedOut.get()) {
+                // the watchdog fired during the handshake
+                call.cancel();
+            }
+            try (DockerHttpClient.Response response = new JschDockerHttpClient.OkResponse(call)) {
+                final byte[] body = readFully(response.getBody());
+                result.complete(new HostResult(host, response.getStatusCode(), response.getHeaders(), body, null,
+                        Duration.ofNanos(System.nanoTime() - start)));
+            }
+        } catch (Exception e) {
+            if (!timedOut.get()) {
+                LOGGER.debug("Request to {} failed", host, e);
+            }
+            result.complete(new HostResult(host, -1, Collections.emptyMap(), null, e,
+                    Duration.ofNanos(System.nanoTime() - start)));
+        } finally {
+            watchdog.cancel(false);
+            if (hostClient != null) {
+                release(hostClient);
+            }
+        }
+    }
+
+    private HostClient lease(URI host) throws Exception {
+        while (true) {
+            final HostClient hostClient = clients.computeIfAbsent(host, h -> new HostClient());
+            hostClient.connecting.lock();
+            try {
+                if (closed) {
+                    throw new IOException("fleet is closed");
+                }
+                synchronized (hostClient) {
+                    if (hostClient.client != null && clients.get(host) == hostClient) {
+                        hostClient.inUse++;
+                        hostClient.lastUsed = System.nanoTime();
+                        return hostClient;
+                    }
+                }
+                if (clients.get(host) != hostClient) {
+                    // evicted meanwhile
+                    continue;
+                }
+                final JschDockerHttpClient.Builder builder = clientBuilder.apply(host).dockerHost(host);
+                if (builder.getConnectTimeout() == null) {
+                    builder.connectTimeout(Duration.ofMillis(hostTimeoutMillis));
+                }
+                final JschDockerHttpClient client;
+                try {
+                    client = builder.build();
+                } catch (Exception e) {
+                    // the next request connects again
+                    clients.remove(host, hostClient);
+                    throw e;
+                }
+                synchronized (hostClient) {
+                    if (!closed && clients.get(host) == hostClient) {
+                        hostClient.client = client;
+                        hostClient.inUse++;
+                        hostClient.lastUsed = System.nanoTime();
+                        return hostClient;
+                    }
+                }
+                // closed meanwhile
+                client.close();
+                throw new IOException("client of " + host + " was closed");
+            } finally {
+                hostClient.connecting.unlock();
+            }
+        }
+    }
+
+    private void release(HostClient hostClient) {
+        synchronized (hostClient) {
+            hostClient.inUse--;
+            hostClient.lastUsed = System.nanoTime();
+        }
+    }
+
+    private void closeClient(URI host) {
+        final HostClient hostClient = clients.remove(host);
+        if (hostClient == null) {
+            return;
+        }
+        final JschDockerHttpClient client = hostClient.client;
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void evictIdle() {
+        final long now = System.nanoTime();
+        for (Map.Entry<URI, HostClient> entry : clients.entrySet()) {
+            final HostClient hostClient = entry.getValue();
+            final JschDockerHttpClient client;
+            synchronized (hostClient) {
+                if (hostClient.inUse > 0 || hostClient.client == null
+                        || now - hostClient.lastUsed < idleTimeoutNanos) {
+                    continue;
+                }
+                client = hostClient.client;
+                hostClient.client = null;
+                clients.remove(entry.getKey(), hostClient);
+            }
+            LOGGER.debug("Closing idle client of {}", entry.getKey());
+            client.close();
+        }
+    }
+
+    private static byte[] readFully(InputStream body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -4,8 +4,6 @@ import com.github.dockerjava.transport.DockerHttpClient;
 import com.github.dockerjava.transport.SSLConfig;
 import com.jcraft.jsch.*;
 import okhttp3.*;
-import okio.BufferedSink;
-import okio.Okio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,13 +12,22 @@ import javax.net.ssl.X509TrustManager;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.InetAddress;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 public final class JschDockerHttpClient implements DockerHttpClient {
 
@@ -55,6 +62,10 @@ public final class JschDockerHttpClient implements DockerHttpClient {
             return this;
         }
 
+        Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
         public Builder connectTimeout(Duration value) {
             this.connectTimeout = value;
             return this;
@@ -79,7 +90,8 @@ public final class JschDockerHttpClient implements DockerHttpClient {
         }
 
         /**
-         * pass {@link Session} if already connected
+         * pass {@link Session} if already connected. The client does not know its credentials, so it can not connect
+         * further sessions: the {@link #sessionPoolSize(int)} must stay 1 and there is no {@link #bulkLane()}.
          *
          * @param session
          * @return
@@ -175,8 +187,380 @@ public final class JschDockerHttpClient implements DockerHttpClient {
             return this;
         }
 
+        /**
+         * maximum number of idle http connections (each backed by its own ssh channel) kept open for reuse, defaults to
+         * {@link JschDockerConfig#DEFAULT_MAX_IDLE_CONNECTIONS}. Use 0 to open a new channel for every request.
+         *
+         * @param maxIdleConnections
+         * @return
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("maxIdleConnections < 0: " + maxIdleConnections);
+            }
+            this.jschDockerConfig.setMaxIdleConnections(maxIdleConnections);
+            return this;
+        }
+
+        /**
+         * time an idle connection is kept open before its ssh channel is closed, defaults to
+         * {@link JschDockerConfig#DEFAULT_KEEP_ALIVE}
+         *
+         * @param keepAliveDuration
+         * @return
+         */
+        public Builder keepAliveDuration(Duration keepAliveDuration) {
+            Objects.requireNonNull(keepAliveDuration, "keepAliveDuration");
+            if (keepAliveDuration.isNegative() || keepAliveDuration.isZero()) {
+                throw new IllegalArgumentException("keepAliveDuration <= 0: " + keepAliveDuration);
+            }
+            this.jschDockerConfig.setKeepAliveDuration(keepAliveDuration);
+            return this;
+        }
+
+        /**
+         * number of ssh sessions, which channels are spread over, defaults to
+         * {@link JschDockerConfig#DEFAULT_SESSION_POOL_SIZE}. Additional sessions are opened on demand, when all
+         * sessions are busy. Use this to get beyond sshd's MaxSessions limit of concurrent channels per session. Can
+         * not be combined with {@link #sshSession(Session)}.
+         *
+         * @param sessionPoolSize
+         * @return
+         */
+        public Builder sessionPoolSize(int sessionPoolSize) {
+            if (sessionPoolSize < 1) {
+                throw new IllegalArgumentException("sessionPoolSize < 1: " + sessionPoolSize);
+            }
+            this.jschDockerConfig.setSessionPoolSize(sessionPoolSize);
+            return this;
+        }
+
+        /**
+         * time a session is avoided after the server refused to open another channel on it, defaults to
+         * {@link JschDockerConfig#DEFAULT_SESSION_SATURATION_BACKOFF}
+         *
+         * @param sessionSaturationBackoff
+         * @return
+         */
+        public Builder sessionSaturationBackoff(Duration sessionSaturationBackoff) {
+            this.jschDockerConfig.setSessionSaturationBackoff(
+                    Objects.requireNonNull(sessionSaturationBackoff, "sessionSaturationBackoff"));
+            return this;
+        }
+
+        /**
+         * executor running the threads, which pump stdin into hijacked connections (attach, exec). One thread is
+         * occupied per connection, so the executor must not queue. Defaults to virtual threads on java 21 and up,
+         * otherwise to a pool of up to {@link HijackExecutors#DEFAULT_MAX_PUMPS} daemon threads. An executor passed here
+         * is not shut down by {@link JschDockerHttpClient#close()}.
+         *
+         * @param hijackExecutor
+         * @return
+         */
+        public Builder hijackExecutor(ExecutorService hijackExecutor) {
+            this.jschDockerConfig.setHijackExecutor(Objects.requireNonNull(hijackExecutor, "hijackExecutor"));
+            return this;
+        }
+
+        /**
+         * opens the given number of channels in {@link #build()} and keeps that many ready in the background, so that
+         * requests do not have to wait for a channel to be opened. Ready channels are closed after the
+         * {@link #keepAliveDuration(Duration)}, and failures to open one back off like {@link #reconnectBackoff(Duration, Duration)}.
+         *
+         * @param channels
+         * @return
+         */
+        public Builder warmUp(int channels) {
+            return warmUp(channels, channels);
+        }
+
+        /**
+         * opens {@code channels} in {@link #build()} and tops up the ready channels in the background, whenever there
+         * are less than {@code lowWatermark} left
+         *
+         * @param channels
+         * @param lowWatermark
+         * @return
+         */
+        public Builder warmUp(int channels, int lowWatermark) {
+            if (channels < 0 || lowWatermark < 0) {
+                throw new IllegalArgumentException("warm up channels must not be negative");
+            }
+            this.jschDockerConfig.setWarmUpChannels(channels);
+            this.jschDockerConfig.setWarmUpLowWatermark(lowWatermark);
+            return this;
+        }
+
+        /**
+         * flow control settings of the channels for all transport modes, see {@link ChannelSizing}
+         *
+         * @param sizing
+         * @return
+         */
+        public Builder channelSizing(ChannelSizing sizing) {
+            Objects.requireNonNull(sizing, "sizing");
+            for (TransportMode mode : TransportMode.values()) {
+                this.jschDockerConfig.setChannelSizing(mode, sizing);
+            }
+            return this;
+        }
+
+        /**
+         * flow control settings of the channels for the given transport mode, see {@link ChannelSizing}
+         *
+         * @param mode
+         * @param sizing
+         * @return
+         */
+        public Builder channelSizing(TransportMode mode, ChannelSizing sizing) {
+            this.jschDockerConfig.setChannelSizing(Objects.requireNonNull(mode, "mode"),
+                    Objects.requireNonNull(sizing, "sizing"));
+            return this;
+        }
+
+        /**
+         * sizes the channel window to the bandwidth-delay product for a bandwidth of 100 Mbit/s, see
+         * {@link #autoWindowSize(long)}
+         *
+         * @return
+         */
+        public Builder autoWindowSize() {
+            return autoWindowSize(JschDockerConfig.DEFAULT_AUTO_WINDOW_BANDWIDTH);
+        }
+
+        /**
+         * sizes the channel window to the bandwidth-delay product, using the round trip time measured once per ssh
+         * session. The window never gets smaller than the configured or default one and is capped at
+         * 64 MiB.
+         *
+         * @param bytesPerSecond bandwidth of the link to the docker host
+         * @return
+         */
+        public Builder autoWindowSize(long bytesPerSecond) {
+            if (bytesPerSecond <= 0) {
+                throw new IllegalArgumentException("bytesPerSecond <= 0: " + bytesPerSecond);
+            }
+            this.jschDockerConfig.setAutoWindowBandwidth(bytesPerSecond);
+            return this;
+        }
+
+        /**
+         * sends streaming and upload/download requests (pull, push, save, load, build, archives, export, logs, events,
+         * stats, attach and exec) over a bulk lane with its own ssh sessions, connections and dispatcher, using
+         * zlib@openssh.com compression. Short api calls then do not compete with long transfers for the window and the
+         * session thread. Can not be combined with {@link #sshSession(Session)}.
+         *
+         * @return
+         */
+        public Builder bulkLane() {
+            return bulkLane(true);
+        }
+
+        /**
+         * see {@link #bulkLane()}
+         *
+         * @param compression whether the ssh sessions of the bulk lane use zlib@openssh.com compression, if the
+         *                    server supports it
+         * @return
+         */
+        public Builder bulkLane(boolean compression) {
+            this.jschDockerConfig.setBulkLane(true);
+            this.jschDockerConfig.setBulkLaneCompression(compression);
+            return this;
+        }
+
+        /**
+         * maximum number of requests executed at a time per lane by {@link JschDockerHttpClient#executeAsync(Request)},
+         * defaults to 10 channels (sshd's MaxSessions) per session of the {@link #sessionPoolSize(int)}
+         *
+         * @param maxRequests
+         * @return
+         */
+        public Builder maxRequests(int maxRequests) {
+            if (maxRequests < 1) {
+                throw new IllegalArgumentException("maxRequests < 1: " + maxRequests);
+            }
+            this.jschDockerConfig.setMaxRequests(maxRequests);
+            return this;
+        }
+
+        /**
+         * maximum number of requests executed at a time per lane and host, see {@link #maxRequests(int)}. As all
+         * requests go to the docker daemon, this is the effective limit, if it is lower.
+         *
+         * @param maxRequestsPerHost
+         * @return
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            if (maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("maxRequestsPerHost < 1: " + maxRequestsPerHost);
+            }
+            this.jschDockerConfig.setMaxRequestsPerHost(maxRequestsPerHost);
+            return this;
+        }
+
+        /**
+         * probes every ssh session in this interval, like ssh's ServerAliveInterval. A session, which does not answer
+         * {@value SessionSupervisor#MAX_MISSED_PROBES} probes in a row, is replaced in the background. Disabled by
+         * default, a lost session is then only replaced by the next request.
+         *
+         * @param serverAliveInterval
+         * @return
+         */
+        public Builder serverAliveInterval(Duration serverAliveInterval) {
+            Objects.requireNonNull(serverAliveInterval, "serverAliveInterval");
+            if (serverAliveInterval.isNegative() || serverAliveInterval.toMillis() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("invalid serverAliveInterval: " + serverAliveInterval);
+            }
+            this.jschDockerConfig.setServerAliveInterval(serverAliveInterval);
+            return this;
+        }
+
+        /**
+         * backoff between failed attempts to reconnect a lost ssh session, doubled after each failure up to the
+         * maximum. Defaults to {@link JschDockerConfig#DEFAULT_MIN_RECONNECT_BACKOFF} and
+         * {@link JschDockerConfig#DEFAULT_MAX_RECONNECT_BACKOFF}.
+         *
+         * @param min
+         * @param max
+         * @return
+         */
+        public Builder reconnectBackoff(Duration min, Duration max) {
+            Objects.requireNonNull(min, "min");
+            Objects.requireNonNull(max, "max");
+            if (min.isNegative() || max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("invalid reconnectBackoff: " + min + ", " + max);
+            }
+            this.jschDockerConfig.setMinReconnectBackoff(min);
+            this.jschDockerConfig.setMaxReconnectBackoff(max);
+            return this;
+        }
+
+        /**
+         * shares the ssh session with all clients in this JVM, which connect to the same user, host, port and identity,
+         * see {@link #shareSessions(Duration)}
+         *
+         * @return
+         */
+        public Builder shareSessions() {
+            return shareSessions(JschDockerConfig.DEFAULT_SHARED_SESSION_IDLE_TIMEOUT);
+        }
+
+        /**
+         * shares the ssh session with all clients in this JVM, which connect to the same user, host, port and identity.
+         * The settings of the client, which connects the session first, apply. Additional sessions of the
+         * {@link #sessionPoolSize(int)} and of the {@link #bulkLane()} are not shared.
+         *
+         * @param idleTimeout time the session is kept open after the last client using it was closed
+         * @return
+         */
+        public Builder shareSessions(Duration idleTimeout) {
+            Objects.requireNonNull(idleTimeout, "idleTimeout");
+            if (idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("idleTimeout < 0: " + idleTimeout);
+            }
+            this.jschDockerConfig.setSharedSessionIdleTimeout(idleTimeout);
+            return this;
+        }
+
+        /**
+         * maximum number of shared sessions open in this JVM, defaults to
+         * {@value SessionRegistry#DEFAULT_MAX_SESSIONS}. The limit is shared by all clients, while clients with
+         * different values are open, the largest one applies. When it is reached, the least recently used idle session
+         * is disconnected. Sessions in use are never disconnected, so the limit may be exceeded.
+         *
+         * @param maxSharedSessions
+         * @return
+         */
+        public Builder maxSharedSessions(int maxSharedSessions) {
+            if (maxSharedSessions < 1) {
+                throw new IllegalArgumentException("maxSharedSessions < 1: " + maxSharedSessions);
+            }
+            this.jschDockerConfig.setMaxSharedSessions(maxSharedSessions);
+            return this;
+        }
+
+        /**
+         * reports channel, request, hijack and remote command measurements, e.g. into micrometer with
+         * {@link MicrometerTransportMetrics}
+         *
+         * @param metrics
+         * @return
+         */
+        public Builder metrics(TransportMetrics metrics) {
+            this.jschDockerConfig.setMetrics(Objects.requireNonNull(metrics, "metrics"));
+            return this;
+        }
+
+        /**
+         * passes the {@link RequestTimeline} of every request to the sink, when the request has ended. It breaks the
+         * time down into opening the channel, sending the request, waiting for the daemon and reading the body. The
+         * sink is called on the thread, which finished the request, so it must not block.
+         *
+         * @param sink
+         * @return
+         */
+        public Builder requestTimeline(Consumer<RequestTimeline> sink) {
+            this.jschDockerConfig.setRequestTimelineSink(Objects.requireNonNull(sink, "sink"));
+            return this;
+        }
+
+        /**
+         * logs the {@link RequestTimeline} of requests, which took at least this long, as warning. Note that the time
+         * of streaming requests, like logs or attach, includes reading the whole body.
+         *
+         * @param threshold
+         * @return
+         */
+        public Builder slowRequestThreshold(Duration threshold) {
+            Objects.requireNonNull(threshold, "threshold");
+            if (threshold.isNegative()) {
+                throw new IllegalArgumentException("threshold < 0: " + threshold);
+            }
+            this.jschDockerConfig.setSlowRequestThreshold(threshold);
+            return this;
+        }
+
+        /**
+         * selects the transport mode on connect, see {@link #autoSelect(Duration)}, caching the selection for 10
+         * minutes
+         *
+         * @return
+         */
+        public Builder autoSelect() {
+            return autoSelect(TransportProbe.DEFAULT_TTL);
+        }
+
+        /**
+         * selects the transport mode on connect, instead of {@link #useSocket()}, {@link #useTcp()} or the dial-stdio
+         * default. Every mode, which works on the host, is timed by opening a channel and sending {@code /_ping},
+         * and the fastest one is used. Candidates are the unix socket at the socket path (not on windows hosts), the
+         * tcp port of {@link #useTcp(int)}, 2375 by default, and dial-stdio. Socat is never selected, because probing
+         * it would start a container. If no mode answers, dial-stdio is used. A different mode set explicitly is
+         * replaced, which is logged as a warning.
+         *
+         * @param ttl time the selection is reused by clients connecting to the same user, host and port
+         * @return
+         */
+        public Builder autoSelect(Duration ttl) {
+            Objects.requireNonNull(ttl, "ttl");
+            if (ttl.isNegative()) {
+                throw new IllegalArgumentException("ttl < 0: " + ttl);
+            }
+            this.jschDockerConfig.setAutoSelectTtl(ttl);
+            return this;
+        }
+
         public JschDockerHttpClient build() throws IOException, JSchException {
             Objects.requireNonNull(dockerHost, "dockerHost not provided");
+            if (jschDockerConfig.getSession() != null && jschDockerConfig.getSessionPoolSize() > 1) {
+                throw new IllegalStateException("sessionPoolSize " + jschDockerConfig.getSessionPoolSize()
+                        + " needs to connect additional sessions, which is not possible with sshSession()");
+            }
+            if (jschDockerConfig.getSession() != null && jschDockerConfig.isBulkLane()) {
+                throw new IllegalStateException(
+                        "bulkLane() needs to connect its own sessions, which is not possible with sshSession()");
+            }
             return new JschDockerHttpClient(dockerHost, sslConfig, readTimeout, connectTimeout,
                     retryOnConnectionFailure, jschDockerConfig);
         }
@@ -184,6 +568,9 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
     private static final String SOCKET_SUFFIX = ".socket";
 
+    // falls back to no compression, if the server does not support it
+    private static final String COMPRESSION = "zlib@openssh.com,zlib,none";
+
     final OkHttpClient client;
 
     final OkHttpClient streamingClient;
@@ -192,18 +579,52 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
     private Session session;
     private boolean externalSession = false;
+    private SessionPool.SharedSessions sharedSessions;
+    private Integer maxSharedSessions;
+    private SessionPool sessionPool;
+    private SessionPool bulkSessionPool;
+    private SocatForwarder socatForwarder;
+    private SocatReaper socatReaper;
+    private ChannelWarmer channelWarmer;
+
+    private final HijackingInterceptor hijackingInterceptor;
+    private final ExecutorService hijackExecutor;
+    private final boolean externalHijackExecutor;
+    private final TransportMetrics metrics;
 
     private JschDockerHttpClient(URI dockerHostUri, SSLConfig sslConfig, Duration readTimeout, Duration connectTimeout,
             Boolean retryOnConnectionFailure, JschDockerConfig jschDockerConfig) throws IOException, JSchException {
 
+        this.externalHijackExecutor = jschDockerConfig.getHijackExecutor() != null;
+        this.hijackExecutor = externalHijackExecutor ? jschDockerConfig.getHijackExecutor()
+                : HijackExecutors.newDefault(HijackExecutors.DEFAULT_MAX_PUMPS);
+        this.metrics = jschDockerConfig.getMetrics();
+        this.hijackingInterceptor = new HijackingInterceptor(hijackExecutor, metrics);
+
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
-                .addNetworkInterceptor(new HijackingInterceptor()).readTimeout(0, TimeUnit.MILLISECONDS)
+                .addNetworkInterceptor(hijackingInterceptor).readTimeout(0, TimeUnit.MILLISECONDS)
                 .retryOnConnectionFailure(true);
 
+        // application interceptors, outermost first: request events, metrics, the user's interceptor, retries
+        clientBuilder.addInterceptor(new RequestEventInterceptor());
+
+        if (metrics != TransportMetrics.NOOP) {
+            clientBuilder.addInterceptor(new RequestMetricsInterceptor(metrics));
+        }
+
+        if (jschDockerConfig.getRequestTimelineSink() != null || jschDockerConfig.getSlowRequestThreshold() != null) {
+            clientBuilder.eventListenerFactory(new TimelineEventListener.Factory(
+                    jschDockerConfig.getRequestTimelineSink(), jschDockerConfig.getSlowRequestThreshold()));
+        }
+
         if (jschDockerConfig.getInterceptor() != null) {
             clientBuilder.addInterceptor(jschDockerConfig.getInterceptor());
         }
 
+        if (!Boolean.FALSE.equals(retryOnConnectionFailure)) {
+            clientBuilder.addInterceptor(new IdempotentRetryInterceptor());
+        }
+
         if (readTimeout != null) {
             clientBuilder.readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
         }
@@ -221,14 +642,58 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
         if ("ssh".equals(dockerHostUri.getScheme())) {
 
-            this.session = connectSSH(dockerHostUri, connectTimeout != null ? (int) connectTimeout.toMillis() : 0,
-                    jschDockerConfig);
+            final int sshConnectTimeout = connectTimeout != null ? (int) connectTimeout.toMillis() : 0;
+
+            if (!externalSession && jschDockerConfig.getSharedSessionIdleTimeout() != null) {
+                this.sharedSessions = sharedSessions(dockerHostUri, sshConnectTimeout, jschDockerConfig);
+            }
+            this.session = connectSSH(dockerHostUri, sshConnectTimeout, jschDockerConfig);
+            if (jschDockerConfig.getAutoSelectTtl() != null) {
+                TransportProbe.apply(TransportProbe.select(session, jschDockerConfig, sshConnectTimeout),
+                        jschDockerConfig);
+            }
+            final SessionPool.SessionFactory sessionFactory = () -> newSession(dockerHostUri, sshConnectTimeout,
+                    jschDockerConfig, false);
+            this.sessionPool = new SessionPool(session, externalSession, sharedSessions, sessionFactory,
+                    jschDockerConfig.getSessionPoolSize(), jschDockerConfig.getSessionSaturationBackoff());
+            supervise(sessionPool, jschDockerConfig);
+            if (sharedSessions != null && jschDockerConfig.getMaxSharedSessions() != null) {
+                // withdrawn again, when the client is closed
+                this.maxSharedSessions = jschDockerConfig.getMaxSharedSessions();
+                SessionRegistry.shared().requestMaxSessions(maxSharedSessions);
+            }
+
+            if (jschDockerConfig.isBulkLane()) {
+                // connected on the first bulk request
+                final SessionPool.SessionFactory bulkSessionFactory = () -> newSession(dockerHostUri,
+                        sshConnectTimeout, jschDockerConfig, jschDockerConfig.isBulkLaneCompression());
+                this.bulkSessionPool = new SessionPool(bulkSessionFactory, jschDockerConfig.getSessionPoolSize(),
+                        jschDockerConfig.getSessionSaturationBackoff());
+                supervise(bulkSessionPool, jschDockerConfig);
+            }
+
+            this.socatReaper = new SocatReaper(sessionPool, jschDockerConfig);
+            this.socatForwarder = new SocatForwarder(sessionPool, socatReaper, jschDockerConfig);
+            if (SocatForwarder.isRequired(jschDockerConfig, session)) {
+                socatForwarder.prepare();
+            }
+
+            final ChannelOpener channelOpener = new ChannelOpener(sessionPool, socatForwarder, jschDockerConfig);
+            if (jschDockerConfig.getWarmUpChannels() > 0 || jschDockerConfig.getWarmUpLowWatermark() > 0) {
+                this.channelWarmer = new ChannelWarmer(channelOpener, jschDockerConfig.getWarmUpLowWatermark(),
+                        sshConnectTimeout, jschDockerConfig.getKeepAliveDuration(),
+                        jschDockerConfig.getMinReconnectBackoff(), jschDockerConfig.getMaxReconnectBackoff());
+                channelWarmer.warmUp(jschDockerConfig.getWarmUpChannels());
+            }
 
-            final JSchSocketFactory socketFactory = new JSchSocketFactory(session, jschDockerConfig);
+            final JSchSocketFactory socketFactory = new JSchSocketFactory(channelOpener, channelWarmer);
 
             clientBuilder.socketFactory(socketFactory);
 
-            clientBuilder.connectionPool(new ConnectionPool(0, 1, TimeUnit.SECONDS)).dns(hostname -> {
+            final ConnectionPool connectionPool = new ConnectionPool(jschDockerConfig.getMaxIdleConnections(),
+                    jschDockerConfig.getKeepAliveDuration().toMillis(), TimeUnit.MILLISECONDS);
+
+            clientBuilder.connectionPool(connectionPool).dispatcher(newDispatcher(jschDockerConfig)).dns(hostname -> {
                 if (hostname.endsWith(SOCKET_SUFFIX)) {
                     return Collections.singletonList(InetAddress.getByAddress(hostname, new byte[] { 0, 0, 0, 0 }));
                 } else {
@@ -253,64 +718,176 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
         client = clientBuilder.build();
 
-        streamingClient = client.newBuilder().build();
+        if (bulkSessionPool != null) {
+            final ChannelOpener bulkChannelOpener = new ChannelOpener(bulkSessionPool, socatForwarder,
+                    jschDockerConfig);
+            streamingClient = client.newBuilder()
+                    .socketFactory(new JSchSocketFactory(bulkChannelOpener, null))
+                    .connectionPool(new ConnectionPool(jschDockerConfig.getMaxIdleConnections(),
+                            jschDockerConfig.getKeepAliveDuration().toMillis(), TimeUnit.MILLISECONDS))
+                    .dispatcher(newDispatcher(jschDockerConfig))
+                    .build();
+        } else {
+            streamingClient = client.newBuilder().build();
+        }
 
         // we always use socketFactory, therefore we only need:
         baseUrl = new HttpUrl.Builder().scheme("http").host("127.0.0.1").build();
+
+        metrics.bind(this);
     }
 
-    private RequestBody toRequestBody(Request request) {
-        InputStream body = request.body();
-        if (body != null) {
-            return new RequestBody() {
-                @Override
-                public MediaType contentType() {
-                    return null;
-                }
+    @Override
+    public Response execute(Request request) {
+        Call call = newCall(request);
+        try {
+            return new OkResponse(call);
+        } catch (IOException e) {
+            call.cancel();
+            throw new UncheckedIOException("Error while executing " + request, e);
+        }
+    }
+
+    /**
+     * executes the request on okhttp's dispatcher, without blocking the calling thread. At most
+     * {@link Builder#maxRequests(int)} calls are in flight at a time, further ones are queued. Cancelling the future
+     * cancels the call.
+     *
+     * @return future completed with the response as soon as its headers arrived, or exceptionally with an
+     * {@link UncheckedIOException}
+     */
+    public CompletableFuture<Response> executeAsync(Request request) {
+        final Call call = newCall(request);
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failedCall, IOException e) {
+                future.completeExceptionally(new UncheckedIOException("Error while executing " + request, e));
+            }
 
-                @Override
-                public void writeTo(BufferedSink sink) throws IOException {
-                    sink.writeAll(Okio.source(body));
+            @Override
+            public void onResponse(Call respondedCall, okhttp3.Response response) {
+                final OkResponse okResponse = new OkResponse(respondedCall, response);
+                if (!future.complete(okResponse)) {
+                    // cancelled meanwhile
+                    okResponse.close();
                 }
-            };
-        }
-        if ("POST".equals(request.method())) {
-            return RequestBody.create(null, "");
-        }
-        return null;
+            }
+        });
+        return future;
     }
 
-    @Override
-    public Response execute(Request request) {
+    Call newCall(Request request) {
+        final OkHttpClient clientToUse;
+
+        if (bulkSessionPool != null ? LaneRouter.isBulk(request) : request.hijackedInput() != null) {
+            clientToUse = streamingClient;
+        } else {
+            clientToUse = client;
+        }
+
+        return clientToUse.newCall(toOkHttpRequest(baseUrl, request));
+    }
 
+    static okhttp3.Request toOkHttpRequest(HttpUrl baseUrl, Request request) {
         String url = baseUrl.toString();
         if (url.endsWith("/") && request.path().startsWith("/")) {
             url = url.substring(0, url.length() - 1);
         }
         okhttp3.Request.Builder requestBuilder = new okhttp3.Request.Builder().url(url + request.path())
-                .tag(Request.class, request).method(request.method(), toRequestBody(request));
+                .tag(Request.class, request).method(request.method(), RequestBodies.of(request));
 
         request.headers().forEach(requestBuilder::header);
 
-        final OkHttpClient clientToUse;
+        return requestBuilder.build();
+    }
 
-        if (request.hijackedInput() == null) {
-            clientToUse = client;
-        } else {
-            clientToUse = streamingClient;
+    private static void supervise(SessionPool pool, JschDockerConfig jschDockerConfig) {
+        new SessionSupervisor(pool, jschDockerConfig.getServerAliveInterval(),
+                jschDockerConfig.getMinReconnectBackoff(), jschDockerConfig.getMaxReconnectBackoff());
+    }
+
+    /**
+     * all requests go to the same host, so both limits default to the number of channels the ssh sessions of a lane
+     * can carry
+     */
+    private static Dispatcher newDispatcher(JschDockerConfig jschDockerConfig) {
+        final int channels = jschDockerConfig.getSessionPoolSize() * JschDockerConfig.DEFAULT_CHANNELS_PER_SESSION;
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(jschDockerConfig.getMaxRequests() != null ? jschDockerConfig.getMaxRequests()
+                : channels);
+        dispatcher.setMaxRequestsPerHost(jschDockerConfig.getMaxRequestsPerHost() != null
+                ? jschDockerConfig.getMaxRequestsPerHost()
+                : channels);
+        return dispatcher;
+    }
+
+    /**
+     * @return number of threads currently pumping stdin into hijacked connections
+     */
+    public int getActiveHijackPumps() {
+        return hijackingInterceptor.getActivePumps();
+    }
+
+    /**
+     * @return number of connections currently carrying a request, each of them on its own ssh channel
+     */
+    public int getActiveChannels() {
+        int active = 0;
+        for (ConnectionPool pool : connectionPools()) {
+            active += pool.connectionCount() - pool.idleConnectionCount();
         }
+        return active;
+    }
 
-        Call call = clientToUse.newCall(requestBuilder.build());
-        try {
-            return new OkResponse(call);
-        } catch (IOException e) {
-            call.cancel();
-            throw new UncheckedIOException("Error while executing " + request, e);
+    /**
+     * @return number of idle connections kept for reuse, plus channels opened ahead of demand by {@link Builder#warmUp(int)}
+     */
+    public int getIdleChannels() {
+        int idle = channelWarmer != null ? channelWarmer.readyChannels() : 0;
+        for (ConnectionPool pool : connectionPools()) {
+            idle += pool.idleConnectionCount();
+        }
+        return idle;
+    }
+
+    /**
+     * @return number of connected ssh sessions, including those of the bulk lane
+     */
+    public int getOpenSessions() {
+        int open = 0;
+        for (SessionPool pool : new SessionPool[] { sessionPool, bulkSessionPool }) {
+            if (pool != null) {
+                open += (int) pool.snapshot().stream().filter(SessionPool.PooledSession::isAlive).count();
+            }
         }
+        return open;
+    }
+
+    private Collection<ConnectionPool> connectionPools() {
+        // both clients share the pool without a bulk lane
+        final Set<ConnectionPool> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        pools.add(client.connectionPool());
+        pools.add(streamingClient.connectionPool());
+        return pools;
     }
 
     @Override
     public void close() {
+        metrics.unbind(this);
+        try {
+            stopSocat();
+        } finally {
+            closeClients();
+        }
+    }
+
+    private void closeClients() {
         try {
             disconnectSSH();
         } finally {
@@ -319,10 +896,13 @@ public final class JschDockerHttpClient implements DockerHttpClient {
                 clientToClose.dispatcher().executorService().shutdown();
                 clientToClose.connectionPool().evictAll();
             }
+            if (!externalHijackExecutor) {
+                hijackExecutor.shutdownNow();
+            }
         }
     }
 
-    static class OkResponse implements Response {
+    static class OkResponse implements TransferableResponse {
 
         static final ThreadLocal<Boolean> CLOSING = ThreadLocal.withInitial(() -> false);
 
@@ -330,9 +910,19 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
         private final okhttp3.Response response;
 
+        private final ResponseBodyStream body;
+
         OkResponse(Call call) throws IOException {
+            this(call, call.execute());
+        }
+
+        OkResponse(Call call, okhttp3.Response response) {
             this.call = call;
-            this.response = call.execute();
+            this.response = response;
+            final ResponseBody responseBody = response.body();
+            this.body = responseBody != null
+                    ? new ResponseBodyStream(responseBody.source(), responseBody.contentLength())
+                    : null;
         }
 
         @Override
@@ -347,12 +937,36 @@ public final class JschDockerHttpClient implements DockerHttpClient {
 
         @Override
         public InputStream getBody() {
-            ResponseBody body = response.body();
-            if (body == null) {
-                return null;
+            return body;
+        }
+
+        @Override
+        public long transferTo(OutputStream out, TransferListener listener) throws IOException {
+            return body != null ? body.transferTo(out, listener) : 0;
+        }
+
+        @Override
+        public long transferTo(WritableByteChannel channel, TransferListener listener) throws IOException {
+            // the stream of Channels wraps the segments without copying them
+            return transferTo(Channels.newOutputStream(channel), listener);
+        }
+
+        @Override
+        public long transferTo(Path path, TransferListener listener) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                return transferTo(channel, listener);
             }
+        }
+
+        @Override
+        public long getBytesTransferred() {
+            return body != null ? body.getBytesTransferred() : 0;
+        }
 
-            return body.source().inputStream();
+        @Override
+        public long getContentLength() {
+            return body != null ? body.getContentLength() : -1;
         }
 
         @Override
@@ -394,50 +1008,138 @@ public final class JschDockerHttpClient implements DockerHttpClient {
             return session;
         }
 
+        if (sharedSessions != null) {
+            return sharedSessions.acquire();
+        }
+
+        return newSession(connectionString, connectTimeout, jschDockerConfig, false);
+    }
+
+    /**
+     * sessions are shared by clients with the same user, host, port and identity
+     */
+    private SessionPool.SharedSessions sharedSessions(URI connectionString, int connectTimeout,
+            JschDockerConfig jschDockerConfig) {
+        final SessionRegistry registry = SessionRegistry.shared();
+        final Object identity = jschDockerConfig.getIdentityFile() != null
+                ? jschDockerConfig.getIdentityFile().getAbsoluteFile()
+                : jschDockerConfig.getIdentityRepository();
+        final SessionRegistry.Key key = new SessionRegistry.Key(connectionString.getUserInfo(),
+                connectionString.getHost(), connectionString.getPort() > 0 ? connectionString.getPort() : 22, identity);
+        final Duration idleTimeout = jschDockerConfig.getSharedSessionIdleTimeout();
+        return new SessionPool.SharedSessions() {
+            @Override
+            public Session acquire() throws IOException, JSchException {
+                return registry.acquire(key,
+                        () -> newSession(connectionString, connectTimeout, jschDockerConfig, false));
+            }
+
+            @Override
+            public void release(Session sharedSession) {
+                registry.release(sharedSession, idleTimeout);
+            }
+        };
+    }
+
+    private Session newSession(URI connectionString, int connectTimeout, JschDockerConfig jschDockerConfig,
+            boolean compression) throws IOException, JSchException {
+
         final JSch jSch = new JSch();
         JSch.setLogger(new Slf4jLogger());
 
-        final String configFile = System.getProperty("user.home") + File.separator + ".ssh" + File.separator + "config";
-        final File file = new File(configFile);
-        if (file.exists()) {
-            final OpenSSHConfig openSSHConfig = OpenSSHConfig.parseFile(file.getAbsolutePath());
-            jSch.setConfigRepository(openSSHConfig);
+        // parsed files and loaded keys are shared by all clients, see SshFileCache
+        final String sshDir = System.getProperty("user.home") + File.separator + ".ssh" + File.separator;
+        final ConfigRepository configRepository = SshFileCache.config(new File(sshDir + "config"));
+        if (configRepository != null) {
+            jSch.setConfigRepository(configRepository);
         }
 
-        final String knownHostsFile = System.getProperty("user.home") + File.separator + ".ssh" + File.separator
-                + "known_hosts";
-        if (new File(knownHostsFile).exists()) {
-            jSch.setKnownHosts(knownHostsFile);
+        final HostKeyRepository knownHosts = SshFileCache.knownHosts(new File(sshDir + "known_hosts"));
+        if (knownHosts != null) {
+            jSch.setHostKeyRepository(knownHosts);
         }
 
         final int port = connectionString.getPort() > 0 ? connectionString.getPort() : 22;
         final Session newSession = jSch.getSession(connectionString.getUserInfo(), connectionString.getHost(), port);
 
+        if (configRepository != null) {
+            final File userKnownHostsFile = SshFileCache.userKnownHostsFile(configRepository,
+                    connectionString.getHost());
+            if (userKnownHostsFile != null) {
+                newSession.setHostKeyRepository(SshFileCache.userKnownHosts(userKnownHostsFile));
+            }
+        }
+
         if (jschDockerConfig.getJschConfig() != null) {
             newSession.setConfig(jschDockerConfig.getJschConfig());
         }
 
+        if (compression) {
+            newSession.setConfig("compression.s2c", COMPRESSION);
+            newSession.setConfig("compression.c2s", COMPRESSION);
+        }
+
         if (jschDockerConfig.getIdentityFile() != null) {
-            jSch.addIdentity(jschDockerConfig.getIdentityFile().getAbsolutePath());
+            final Identity identity = SshFileCache.identity(jschDockerConfig.getIdentityFile());
+            if (identity == null) {
+                throw new JSchException("identity file " + jschDockerConfig.getIdentityFile() + " does not exist");
+            }
+            jSch.addIdentity(identity, null);
         } else if (jschDockerConfig.getIdentityRepository() != null) {
             jSch.setIdentityRepository(jschDockerConfig.getIdentityRepository());
         }
 
+        if (configRepository != null) {
+            newSession.setIdentityRepository(SshFileCache.withConfigIdentities(jSch.getIdentityRepository(),
+                    configRepository, connectionString.getHost()));
+        }
+
         newSession.setUserInfo(jschDockerConfig.getUserInfo());
 
-        // when no value is set, Jsch might take ConnectTimeout from ssh/config, otherwise this is being overwritten here
-        if (connectTimeout > 0) {
-            newSession.connect(connectTimeout);
-        } else {
-            newSession.connect();
+        final SessionConnectEvent event = new SessionConnectEvent();
+        event.begin();
+        try {
+            // when no value is set, Jsch might take ConnectTimeout from ssh/config, otherwise this is being overwritten here
+            if (connectTimeout > 0) {
+                newSession.connect(connectTimeout);
+            } else {
+                newSession.connect();
+            }
+            event.success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.host = newSession.getHost();
+                event.port = newSession.getPort();
+                event.user = newSession.getUserName();
+                event.commit();
+            }
         }
 
         return newSession;
     }
 
+    private void stopSocat() {
+        if (channelWarmer != null) {
+            channelWarmer.close();
+        }
+        socatForwarder.close();
+        socatReaper.close();
+    }
+
     private void disconnectSSH() {
-        if (!externalSession) {
-            session.disconnect();
+        try {
+            sessionPool.disconnect();
+        } finally {
+            try {
+                if (bulkSessionPool != null) {
+                    bulkSessionPool.disconnect();
+                }
+            } finally {
+                if (maxSharedSessions != null) {
+                    SessionRegistry.shared().withdrawMaxSessions(maxSharedSessions);
+                }
+            }
         }
     }
 }
@@ -1,35 +1,25 @@
 package com.github.mwiede.dockerjava.jsch;
 
-import com.github.dockerjava.api.model.Container;
-import com.github.dockerjava.api.model.ContainerPort;
-import com.jcraft.jsch.*;
-import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.Locale;
-import java.util.Objects;
 
 class JschSocket extends Socket {
 
-    private static final Logger logger = LoggerFactory.getLogger(JschSocket.class);
-
-    private final JschDockerConfig config;
-    private final Session session;
+    private final ChannelOpener channelOpener;
+    private final ChannelWarmer channelWarmer;
 
-    private Channel channel;
-    private InputStream inputStream;
-    private OutputStream outputStream;
-    private Container socatContainer;
+    private volatile JschChannel channel;
+    private volatile int soTimeout;
 
-    JschSocket(Session session, JschDockerConfig config) {
-        this.session = session;
-        this.config = config;
+    /**
+     * @param channelWarmer optional source of channels opened ahead of demand
+     */
+    JschSocket(ChannelOpener channelOpener, ChannelWarmer channelWarmer) {
+        this.channelOpener = channelOpener;
+        this.channelWarmer = channelWarmer;
     }
 
     @Override
@@ -44,81 +34,77 @@ class JschSocket extends Socket {
 
     @Override
     public boolean isConnected() {
-        return channel.isConnected();
+        return channel != null && channel.isConnected();
     }
 
+    /**
+     * a pooled connection is only reused by okhttp if neither the channel nor the session underneath is gone
+     */
     @Override
     public boolean isClosed() {
         return channel != null && channel.isClosed();
     }
 
-    private void connect(int timeout) throws IOException {
-        try {
-            if (config.isUseTcp()) {
-                final int port = config.getTcpPort() != null ? config.getTcpPort() : 2375;
-                channel = session.getStreamForwarder("127.0.0.1", port);
-                logger.debug("Using channel direct-tcpip with 127.0.0.1:{}", port);
-            } else if (config.isUseSocat() || unixSocketOnWindows()) {
-                // forward docker socket via socat
-                socatContainer = SocatHandler.startSocat(session, config.getSocatFlags(), config.getSocketPath(), config.getAdditionalFileToSource());
-                final ContainerPort containerPort = socatContainer.getPorts()[0];
-                Objects.requireNonNull(containerPort);
-                channel = session.getStreamForwarder(containerPort.getIp(), containerPort.getPublicPort());
-                logger.debug("Using channel direct-tcpip with socat on port {}", containerPort.getPublicPort());
-            } else if (config.isUseSocket()) {
-                // directly forward docker socket
-                channel = session.openChannel("direct-streamlocal@openssh.com");
-                ((ChannelDirectStreamLocal) channel).setSocketPath(config.getSocketPath());
-                logger.debug("Using channel direct-streamlocal on {}", config.getSocketPath());
-            } else {
-                // only 18.09 and up
-                channel = session.openChannel("exec");
-                String command ="docker system dial-stdio";
-                if (StringUtils.isNotEmpty(config.getAdditionalFileToSource())) {
-                    command = " source " + config.getAdditionalFileToSource() + " && " + command;
-                }
-                ((ChannelExec) channel).setCommand(command);
-                logger.debug("Using dialer command");
-            }
-
-            inputStream = channel.getInputStream();
-            outputStream = channel.getOutputStream();
-
-            channel.connect(timeout);
-
-        } catch (JSchException e) {
-            throw new IOException(e);
-        }
+    /**
+     * the remote end sent EOF, e.g. because {@code docker system dial-stdio} exited
+     */
+    @Override
+    public boolean isInputShutdown() {
+        return channel != null && channel.isEOF();
     }
 
     @Override
-    public synchronized void close() throws IOException {
-        if (socatContainer != null) {
-            try {
-                SocatHandler.stopSocat(session, socatContainer.getId(),config.getAdditionalFileToSource());
-            } catch (JSchException e) {
-                throw new IOException(e);
-            }
+    public boolean isOutputShutdown() {
+        return isClosed();
+    }
+
+    /**
+     * kept on the socket itself, because there is no os socket behind it. okhttp relies on it to probe idle
+     * connections with a short read before reusing them.
+     */
+    @Override
+    public void setSoTimeout(int timeout) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout can't be negative");
+        }
+        this.soTimeout = timeout;
+        final JschChannel current = channel;
+        if (current != null) {
+            current.setReadTimeout(timeout);
         }
-        channel.disconnect();
     }
 
     @Override
-    public InputStream getInputStream() {
-        return inputStream;
+    public int getSoTimeout() {
+        return soTimeout;
+    }
+
+    private void connect(int timeout) throws IOException {
+        final JschChannel warmChannel = channelWarmer != null ? channelWarmer.poll() : null;
+        final JschChannel opened = warmChannel != null ? warmChannel : channelOpener.open(timeout);
+        final RequestTimeline timeline = TimelineEventListener.connecting();
+        if (timeline != null) {
+            timeline.setMode(opened.getMode());
+            timeline.setWarmChannel(warmChannel != null);
+        }
+        opened.setReadTimeout(soTimeout);
+        channel = opened;
     }
 
     @Override
-    public OutputStream getOutputStream() {
-        return outputStream;
+    public void close() {
+        if (channel != null) {
+            channel.close();
+        }
     }
 
-    private boolean unixSocketOnWindows() {
-        return config.isUseSocket() && config.getSocketPath().equalsIgnoreCase(JschDockerConfig.VAR_RUN_DOCKER_SOCK) && isWindowsHost();
+    @Override
+    public InputStream getInputStream() {
+        return channel.getInputStream();
     }
 
-    private boolean isWindowsHost() {
-        final String serverVersion = session.getServerVersion();
-        return serverVersion.toLowerCase(Locale.getDefault()).contains("windows");
+    @Override
+    public OutputStream getOutputStream() {
+        return channel.getOutputStream();
     }
 }
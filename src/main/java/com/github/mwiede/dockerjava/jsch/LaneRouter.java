@@ -0,0 +1,46 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+
+import java.util.regex.Pattern;
+
+/**
+ * Tells the endpoints, which stream or move large amounts of data, from the short api calls. With
+ * {@link JschDockerHttpClient.Builder#bulkLane()} they are sent over their own ssh sessions.
+ */
+final class LaneRouter {
+
+    private static final Pattern API_VERSION = Pattern.compile("^/v[0-9.]+(?=/)");
+
+    private static final Pattern BULK_PATHS = Pattern.compile("^/(?:"
+            + "build"
+            + "|events"
+            + "|images/(?:create|load|get)"
+            + "|images/.+/(?:push|get)"
+            + "|containers/[^/]+/(?:archive|export|logs|attach|stats)"
+            + "|exec/[^/]+/start"
+            + ")/?$");
+
+    private LaneRouter() {
+    }
+
+    static boolean isBulk(DockerHttpClient.Request request) {
+        if (request.hijackedInput() != null) {
+            return true;
+        }
+        // stat of an archive is answered in the headers
+        if ("HEAD".equals(request.method())) {
+            return false;
+        }
+        return BULK_PATHS.matcher(normalize(request.path())).matches();
+    }
+
+    /**
+     * @return the path without query and api version
+     */
+    static String normalize(String path) {
+        final int query = path.indexOf('?');
+        final String withoutQuery = query >= 0 ? path.substring(0, query) : path;
+        return API_VERSION.matcher(withoutQuery).replaceFirst("");
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reports into a micrometer {@link MeterRegistry}. micrometer-core is an optional dependency, it is only needed when
+ * this class is used. One instance can be shared by several clients, the gauges sum up all clients bound to it.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>{@code jsch.channel.open} timer with histogram, tagged by {@code mode}</li>
+ * <li>{@code jsch.channels.active}, {@code jsch.channels.idle}, {@code jsch.sessions.open} and
+ * {@code jsch.hijack.pumps.active} gauges</li>
+ * <li>{@code jsch.bytes.received} and {@code jsch.bytes.sent} counters</li>
+ * <li>{@code jsch.requests} timer with histogram, tagged by {@code method}, {@code endpoint}, {@code status} and
+ * {@code outcome}</li>
+ * <li>{@code jsch.hijack.pump} timer and {@code jsch.hijack.bytes} counter</li>
+ * <li>{@code jsch.remote.commands} timer, tagged by {@code command} and {@code outcome}</li>
+ * <li>{@code jsch.socat.startup} timer</li>
+ * <li>{@code jsch.failures} counter, tagged by {@code operation} and {@code exception}</li>
+ * </ul>
+ */
+public final class MicrometerTransportMetrics implements TransportMetrics {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Set<JschDockerHttpClient> clients = ConcurrentHashMap.newKeySet();
+    private final Map<TransportMode, Timer> channelOpen = new EnumMap<>(TransportMode.class);
+    private final Counter bytesReceived;
+    private final Counter bytesSent;
+    private final Timer hijackPump;
+    private final Counter hijackBytes;
+    private final Timer socatStartup;
+
+    public MicrometerTransportMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * @param tags added to all meters, e.g. the docker host
+     */
+    public MicrometerTransportMetrics(MeterRegistry registry, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+        for (TransportMode mode : TransportMode.values()) {
+            channelOpen.put(mode, Timer.builder("jsch.channel.open")
+                    .description("time to open a channel to the docker daemon")
+                    .tags(this.tags).tag("mode", name(mode))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        bytesReceived = Counter.builder("jsch.bytes.received").baseUnit("bytes")
+                .description("bytes received from the docker daemon").tags(this.tags).register(registry);
+        bytesSent = Counter.builder("jsch.bytes.sent").baseUnit("bytes")
+                .description("bytes sent to the docker daemon").tags(this.tags).register(registry);
+        hijackPump = Timer.builder("jsch.hijack.pump").description("time stdin of an attach or exec was pumped")
+                .tags(this.tags).register(registry);
+        hijackBytes = Counter.builder("jsch.hijack.bytes").baseUnit("bytes")
+                .description("bytes of stdin pumped into attach and exec").tags(this.tags).register(registry);
+        socatStartup = Timer.builder("jsch.socat.startup").description("time to start or adopt the socat forwarder")
+                .tags(this.tags).register(registry);
+        gauge("jsch.channels.active", "channels carrying a request", JschDockerHttpClient::getActiveChannels);
+        gauge("jsch.channels.idle", "channels kept for reuse", JschDockerHttpClient::getIdleChannels);
+        gauge("jsch.sessions.open", "connected ssh sessions", JschDockerHttpClient::getOpenSessions);
+        gauge("jsch.hijack.pumps.active", "threads pumping stdin", JschDockerHttpClient::getActiveHijackPumps);
+    }
+
+    @Override
+    public void bind(JschDockerHttpClient client) {
+        clients.add(client);
+    }
+
+    @Override
+    public void unbind(JschDockerHttpClient client) {
+        clients.remove(client);
+    }
+
+    @Override
+    public void channelOpened(TransportMode mode, long nanos) {
+        channelOpen.get(mode).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void channelOpenFailed(TransportMode mode, Exception cause) {
+        failure("channel.open", cause);
+    }
+
+    @Override
+    public void bytesReceived(long bytes) {
+        bytesReceived.increment(bytes);
+    }
+
+    @Override
+    public void bytesSent(long bytes) {
+        bytesSent.increment(bytes);
+    }
+
+    @Override
+    public void requestCompleted(String method, String endpoint, int statusCode, long nanos) {
+        request(method, endpoint, Integer.toString(statusCode), statusCode < 400 ? "SUCCESS" : "ERROR")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void requestFailed(String method, String endpoint, Exception cause, long nanos) {
+        request(method, endpoint, "IO_ERROR", "FAILURE").record(nanos, TimeUnit.NANOSECONDS);
+        failure("request", cause);
+    }
+
+    @Override
+    public void hijackPumped(long bytes, long nanos) {
+        hijackPump.record(nanos, TimeUnit.NANOSECONDS);
+        hijackBytes.increment(bytes);
+    }
+
+    @Override
+    public void hijackPumpFailed(Exception cause) {
+        failure("hijack.pump", cause);
+    }
+
+    @Override
+    public void remoteCommandCompleted(String command, int exitStatus, long nanos) {
+        Timer.builder("jsch.remote.commands").description("commands run on the docker host")
+                .tags(tags).tag("command", command).tag("outcome", exitStatus == 0 ? "SUCCESS" : "ERROR")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void remoteCommandFailed(String command, Exception cause) {
+        failure("remote.command", cause);
+    }
+
+    @Override
+    public void socatStarted(long nanos) {
+        socatStartup.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer request(String method, String endpoint, String status, String outcome) {
+        return Timer.builder("jsch.requests").description("time until the response headers arrived")
+                .tags(tags).tag("method", method).tag("endpoint", endpoint).tag("status", status)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private void failure(String operation, Exception cause) {
+        Counter.builder("jsch.failures").tags(tags).tag("operation", operation)
+                .tag("exception", cause.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    private void gauge(String name, String description, ToIntFunction<JschDockerHttpClient> value) {
+        Gauge.builder(name, clients, bound -> bound.stream().mapToInt(value).sum())
+                .description(description).tags(tags).strongReference(true)
+                .register(registry);
+    }
+
+    private static String name(TransportMode mode) {
+        return mode.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * a command ran on the docker host, see {@link FlightRecorderEvent}
+ */
+class RemoteCommandEvent extends FlightRecorderEvent {
+
+    String command;
+    int exitStatus;
+}
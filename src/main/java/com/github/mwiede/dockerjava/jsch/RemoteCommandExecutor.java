@@ -0,0 +1,243 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs commands on the remote host in an exec channel. Output is pushed into the executor by jsch's session thread, and
+ * the result is completed as soon as the server closes the channel, so there is no polling involved.
+ * <p>
+ * Callbacks and stages depending on the returned futures run on the session thread, so they must not block.
+ */
+class RemoteCommandExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteCommandExecutor.class);
+
+    static final class CommandResult {
+
+        private final String command;
+        private final int exitStatus;
+        private final String stdout;
+        private final String stderr;
+
+        CommandResult(String command, int exitStatus, String stdout, String stderr) {
+            this.command = command;
+            this.exitStatus = exitStatus;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        String getCommand() {
+            return command;
+        }
+
+        int getExitStatus() {
+            return exitStatus;
+        }
+
+        String getStdout() {
+            return stdout;
+        }
+
+        String getStderr() {
+            return stderr;
+        }
+
+        boolean isSuccess() {
+            return exitStatus == 0;
+        }
+    }
+
+    private final Session session;
+    private final String additionalFileToSource;
+    private final TransportMetrics metrics;
+
+    RemoteCommandExecutor(Session session, String additionalFileToSource, TransportMetrics metrics) {
+        this.session = session;
+        this.additionalFileToSource = additionalFileToSource;
+        this.metrics = metrics;
+    }
+
+    /**
+     * runs the command and waits for it to finish
+     *
+     * @return stdout of the command
+     * @throws RuntimeException if the command ended with an exit-status other than 0
+     */
+    String execute(String command) throws JSchException, IOException {
+        final CommandResult result;
+        try {
+            result = executeAsync(command).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while running " + command);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JSchException) {
+                throw (JSchException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        if (!result.isSuccess()) {
+            throw new RuntimeException("command ended in exit-status:" + result.getExitStatus() +
+                    " with error message: " + result.getStderr());
+        }
+        return result.getStdout();
+    }
+
+    CompletableFuture<CommandResult> executeAsync(String command) {
+        return executeAsync(command, null, null);
+    }
+
+    /**
+     * @param stdoutLines optional callback receiving each line of stdout while the command is running
+     * @param stderrLines optional callback receiving each line of stderr while the command is running
+     */
+    CompletableFuture<CommandResult> executeAsync(String command, Consumer<String> stdoutLines, Consumer<String> stderrLines) {
+        final String commandToRun = StringUtils.isNotEmpty(additionalFileToSource)
+                // e.g. for Windows named pipe support
+                ? " source " + additionalFileToSource + " && " + command
+                : command;
+
+        final CompletableFuture<CommandResult> result = new CompletableFuture<>();
+        final ChannelExec channel;
+        try {
+            channel = (ChannelExec) session.openChannel("exec");
+        } catch (JSchException e) {
+            metrics.remoteCommandFailed(commandName(command), e);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        final long start = System.nanoTime();
+        // begun on the calling thread, but committed on the session thread, which sees the channel closing
+        final RemoteCommandEvent event = new RemoteCommandEvent();
+        event.begin();
+        final OutputCollector stdout = new OutputCollector(stdoutLines);
+        // jsch closes the stream for stderr last, when the channel got closed and the exit-status is known. A channel
+        // failing to connect closes it as well, before connect() throws.
+        final CompletableFuture<Void> channelClosed = new CompletableFuture<>();
+        final OutputCollector stderr = new OutputCollector(stderrLines) {
+            @Override
+            void closed() {
+                channelClosed.complete(null);
+            }
+        };
+
+        channel.setCommand(commandToRun);
+        channel.setOutputStream(stdout);
+        channel.setExtOutputStream(stderr);
+        logger.debug("running command: {}", commandToRun);
+        try {
+            channel.connect();
+        } catch (JSchException e) {
+            metrics.remoteCommandFailed(commandName(command), e);
+            commit(event, command, -1);
+            result.completeExceptionally(e);
+            channel.disconnect();
+            return result;
+        }
+        // runs right away, if the command was that quick
+        channelClosed.thenRun(() -> {
+            final int exitStatus = channel.getExitStatus();
+            final long elapsed = System.nanoTime() - start;
+            channel.disconnect();
+            logger.debug("exit-status: {} after {} ms of {}", exitStatus, elapsed / 1_000_000, commandToRun);
+            metrics.remoteCommandCompleted(commandName(command), exitStatus, elapsed);
+            commit(event, command, exitStatus);
+            result.complete(new CommandResult(command, exitStatus, stdout.toString(), stderr.toString()));
+        });
+        return result;
+    }
+
+    private static void commit(RemoteCommandEvent event, String command, int exitStatus) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.command = command;
+            event.exitStatus = exitStatus;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the program and, for docker, its sub command, e.g. {@code docker run}
+     */
+    static String commandName(String command) {
+        final String[] words = command.trim().split("\\s+", 3);
+        return "docker".equals(words[0]) && words.length > 1 ? words[0] + " " + words[1] : words[0];
+    }
+
+    /**
+     * collects the output of a stream and hands out complete lines to an optional callback
+     */
+    private static class OutputCollector extends OutputStream {
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private final Consumer<String> lines;
+        private boolean closed;
+
+        OutputCollector(Consumer<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            output.write(b, off, len);
+            if (lines == null) {
+                return;
+            }
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    emitLine();
+                } else {
+                    line.write(b[i]);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (lines != null && line.size() > 0) {
+                    emitLine();
+                }
+            }
+            closed();
+        }
+
+        void closed() {
+        }
+
+        @Override
+        public synchronized String toString() {
+            return new String(output.toByteArray(), Charset.defaultCharset());
+        }
+
+        private void emitLine() {
+            lines.accept(new String(line.toByteArray(), Charset.defaultCharset()));
+            line.reset();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+
+/**
+ * Creates request bodies with an exact Content-Length where the size is known upfront, so that uploads are not sent in
+ * chunked encoding: byte arrays, byte array streams, files and streams with a {@code Content-Length} header on the
+ * request. Files are read through their {@link FileChannel} in large blocks.
+ */
+final class RequestBodies {
+
+    static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    private RequestBodies() {
+    }
+
+    static RequestBody of(DockerHttpClient.Request request) {
+        final byte[] bytes = request.bodyBytes();
+        if (bytes != null) {
+            return RequestBody.create(null, bytes);
+        }
+        final InputStream body = request.body();
+        if (body == null) {
+            return "POST".equals(request.method()) ? RequestBody.create(null, "") : null;
+        }
+        // subclasses might override read, so only the exact classes are looked into
+        if (body.getClass() == FileInputStream.class) {
+            final RequestBody fileBody = FileBody.of((FileInputStream) body);
+            if (fileBody != null) {
+                return fileBody;
+            }
+        } else if (body.getClass() == ByteArrayInputStream.class) {
+            return new StreamBody(body, ((ByteArrayInputStream) body).available());
+        }
+        return new StreamBody(body, contentLengthHint(request.headers()));
+    }
+
+    private static long contentLengthHint(Map<String, String> headers) {
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                try {
+                    return Long.parseLong(header.getValue().trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * reads with positional reads from where the stream stood, so the body can be written again on a retry
+     */
+    private static final class FileBody extends RequestBody {
+
+        private final FileChannel channel;
+        private final long position;
+        private final long length;
+
+        private FileBody(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.length = length;
+        }
+
+        /**
+         * @return the body or {@code null}, if the stream is not backed by a regular file, e.g. a pipe
+         */
+        static FileBody of(FileInputStream in) {
+            try {
+                final FileChannel channel = in.getChannel();
+                final long position = channel.position();
+                final long length = channel.size() - position;
+                return length > 0 ? new FileBody(channel, position, length) : null;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(TRANSFER_BUFFER_SIZE, length));
+            long offset = position;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear();
+                if (remaining < buffer.capacity()) {
+                    buffer.limit((int) remaining);
+                }
+                final int read = channel.read(buffer, offset);
+                if (read == -1) {
+                    throw new EOFException("file ended after " + (length - remaining) + " of " + length + " bytes");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    sink.write(buffer);
+                }
+                offset += read;
+                remaining -= read;
+            }
+        }
+    }
+
+    private static final class StreamBody extends RequestBody {
+
+        private final InputStream in;
+        private final long length;
+
+        /**
+         * @param length exact length or -1 to send the body chunked
+         */
+        StreamBody(InputStream in, long length) {
+            this.in = in;
+            this.length = length;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return null;
+        }
+
+        @Override
+        public long contentLength() {
+            return length;
+        }
+
+        @Override
+        public boolean isOneShot() {
+            return true;
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            final byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long remaining = length;
+            while (length < 0 || remaining > 0) {
+                final int max = length < 0 ? buffer.length : (int) Math.min(buffer.length, remaining);
+                final int read = in.read(buffer, 0, max);
+                if (read == -1) {
+                    if (length < 0) {
+                        return;
+                    }
+                    throw new EOFException("body ended after " + (length - remaining) + " of " + length + " bytes");
+                }
+                sink.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * a request was executed, until its response headers arrived, see {@link FlightRecorderEvent}
+ */
+class RequestEvent extends FlightRecorderEvent {
+
+    String method;
+    String path;
+    int statusCode;
+}
@@ -0,0 +1,36 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Records a {@link RequestEvent} for each call. Unless a recording enables the event, this costs no more than creating
+ * it, and on Java 8 nothing is recorded at all.
+ */
+class RequestEventInterceptor implements Interceptor {
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        final RequestEvent event = new RequestEvent();
+        event.begin();
+        event.statusCode = -1;
+        try {
+            final Response response = chain.proceed(request);
+            event.statusCode = response.code();
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                final DockerHttpClient.Request originalRequest = request.tag(DockerHttpClient.Request.class);
+                event.method = request.method();
+                event.path = originalRequest != null ? originalRequest.path() : request.url().encodedPath();
+                event.commit();
+            }
+        }
+    }
+}
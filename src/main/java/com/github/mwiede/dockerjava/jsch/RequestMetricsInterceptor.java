@@ -0,0 +1,37 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Reports the latency of each call per endpoint template. It runs outside the user's interceptor and the retries (see
+ * the order in {@link JschDockerHttpClient}), so the time includes them and waiting for a channel, but not reading the
+ * body.
+ */
+class RequestMetricsInterceptor implements Interceptor {
+
+    private final TransportMetrics metrics;
+
+    RequestMetricsInterceptor(TransportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        final Request request = chain.request();
+        final String endpoint = EndpointTemplates.of(request.url().encodedPath());
+        final long start = System.nanoTime();
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            metrics.requestFailed(request.method(), endpoint, e, System.nanoTime() - start);
+            throw e;
+        }
+        metrics.requestCompleted(request.method(), endpoint, response.code(), System.nanoTime() - start);
+        return response;
+    }
+}
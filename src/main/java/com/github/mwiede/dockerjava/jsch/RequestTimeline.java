@@ -0,0 +1,167 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the time of one request went, see {@link JschDockerHttpClient.Builder#requestTimeline(java.util.function.Consumer)}.
+ * Phases, which happened more than once, e.g. because the request was retried, are summed up. The body may be read on
+ * another thread than the one sending the request, so access is synchronized.
+ */
+public final class RequestTimeline {
+
+    public enum Phase {
+        /**
+         * opening the connection, which consists of the following three phases. Missing, if a pooled connection was
+         * reused.
+         */
+        CONNECT,
+        /**
+         * waiting for an ssh session of the pool, including connecting it
+         */
+        SESSION,
+        /**
+         * starting or adopting the socat forwarder
+         */
+        SOCAT,
+        /**
+         * opening the ssh channel. For dial-stdio this includes spawning {@code docker system dial-stdio} on the host,
+         * if a connect timeout is set, otherwise the spawn is part of {@link #TIME_TO_FIRST_BYTE}.
+         */
+        CHANNEL_OPEN,
+        /**
+         * sending the request headers and body
+         */
+        REQUEST,
+        /**
+         * from the end of the request until the response headers were received
+         */
+        TIME_TO_FIRST_BYTE,
+        /**
+         * reading the response body
+         */
+        BODY
+    }
+
+    private final String method;
+    private final String path;
+    private final long startNanos = System.nanoTime();
+    private final Map<Phase, Long> phases = new EnumMap<>(Phase.class);
+    private TransportMode mode;
+    private boolean warmChannel;
+    private int statusCode = -1;
+    private Exception failure;
+    private long totalNanos;
+
+    RequestTimeline(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the phase's duration or {@code null}, if the request did not go through it
+     */
+    public synchronized Duration getPhase(Phase phase) {
+        final Long nanos = phases.get(phase);
+        return nanos != null ? Duration.ofNanos(nanos) : null;
+    }
+
+    /**
+     * @return mode of the channel opened for the request, or {@code null}, if a pooled connection was reused
+     */
+    public synchronized TransportMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return whether the connection got a channel opened ahead of demand by the warm-up
+     */
+    public synchronized boolean isWarmChannel() {
+        return warmChannel;
+    }
+
+    /**
+     * @return status code of the response, or -1 if the request failed before
+     */
+    public synchronized int getStatusCode() {
+        return statusCode;
+    }
+
+    public synchronized Exception getFailure() {
+        return failure;
+    }
+
+    public synchronized Duration getTotal() {
+        return Duration.ofNanos(totalNanos);
+    }
+
+    synchronized void add(Phase phase, long nanos) {
+        phases.merge(phase, nanos, Long::sum);
+    }
+
+    synchronized void setMode(TransportMode mode) {
+        this.mode = mode;
+    }
+
+    synchronized void setWarmChannel(boolean warmChannel) {
+        this.warmChannel = warmChannel;
+    }
+
+    synchronized void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    synchronized void finish(Exception failure) {
+        this.failure = failure;
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * e.g. {@code GET /containers/abc/json 200 in 412 ms: connect 380 ms (session 1 ms; channel_open 378 ms
+     * dial_stdio), request 0 ms, time_to_first_byte 30 ms, body 2 ms}
+     */
+    @Override
+    public synchronized String toString() {
+        final StringJoiner breakdown = new StringJoiner(", ", method + " " + path + " "
+                + (failure != null ? failure.toString() : Integer.toString(statusCode)) + " in " + millis(totalNanos)
+                + ": ", warmChannel ? ", warm channel" : "");
+        for (Phase phase : new Phase[] { Phase.CONNECT, Phase.REQUEST, Phase.TIME_TO_FIRST_BYTE, Phase.BODY }) {
+            if (phases.containsKey(phase)) {
+                breakdown.add(name(phase) + " " + millis(phases.get(phase))
+                        + (phase == Phase.CONNECT ? connectBreakdown() : ""));
+            }
+        }
+        return breakdown.toString();
+    }
+
+    private String connectBreakdown() {
+        final StringJoiner breakdown = new StringJoiner("; ", " (", ")").setEmptyValue("");
+        for (Phase phase : new Phase[] { Phase.SESSION, Phase.SOCAT, Phase.CHANNEL_OPEN }) {
+            if (phases.containsKey(phase)) {
+                breakdown.add(name(phase) + " " + millis(phases.get(phase))
+                        + (phase == Phase.CHANNEL_OPEN && mode != null ? " " + name(mode) : ""));
+            }
+        }
+        return breakdown.toString();
+    }
+
+    private static String millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
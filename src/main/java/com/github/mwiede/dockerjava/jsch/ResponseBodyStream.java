@@ -0,0 +1,97 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okio.Buffer;
+import okio.BufferedSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Body of a response, which counts the bytes consumed and transfers the rest of the body by handing the segments
+ * buffered by okio directly to the target.
+ */
+class ResponseBodyStream extends InputStream {
+
+    private final BufferedSource source;
+    private final long contentLength;
+
+    // written by the reading thread only, read by anyone watching the progress
+    private volatile long bytesTransferred;
+
+    ResponseBodyStream(BufferedSource source, long contentLength) {
+        this.source = source;
+        this.contentLength = contentLength;
+    }
+
+    long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (source.exhausted()) {
+            return -1;
+        }
+        bytesTransferred++;
+        return source.readByte() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int read = source.read(b, off, len);
+        if (read > 0) {
+            bytesTransferred += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && !source.exhausted()) {
+            final long chunk = Math.min(n - skipped, source.getBuffer().size());
+            source.skip(chunk);
+            skipped += chunk;
+        }
+        bytesTransferred += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(source.getBuffer().size(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * overrides {@code InputStream.transferTo} of java 9 and up
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        return transferTo(out, null);
+    }
+
+    long transferTo(OutputStream out, TransferListener listener) throws IOException {
+        long transferred = 0;
+        // every exhausted() pulls at least one segment from the network into the buffer, if it is empty
+        while (!source.exhausted()) {
+            final Buffer buffer = source.getBuffer();
+            final long size = buffer.size();
+            buffer.writeTo(out, size);
+            transferred += size;
+            bytesTransferred += size;
+            if (listener != null) {
+                listener.onProgress(bytesTransferred, contentLength);
+            }
+        }
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
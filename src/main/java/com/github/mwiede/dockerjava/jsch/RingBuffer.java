@@ -0,0 +1,222 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded byte buffer between exactly one writing and one reading thread, for jsch's session thread to hand over the
+ * data received on a channel. In contrast to the piped streams of jsch, there is no lock: both sides only publish their
+ * position and a waiting side is unparked as soon as the other one made progress.
+ * <p>
+ * The writer blocks while the buffer is full. jsch acknowledges received data to the server as soon as it is written
+ * here, so a full buffer is what stops the server from sending more.
+ */
+class RingBuffer {
+
+    static final int DEFAULT_CAPACITY = 256 * 1024;
+
+    private final byte[] buffer;
+    private final int capacity;
+
+    // both only ever increase, the index into the buffer is the position modulo capacity
+    private volatile long writePosition;
+    private volatile long readPosition;
+
+    private volatile boolean writerClosed;
+    private volatile boolean readerClosed;
+
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+
+    private volatile int timeoutMillis;
+
+    private final Input input = new Input();
+    private final Output output = new Output();
+
+    RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        }
+        this.buffer = new byte[capacity];
+        this.capacity = capacity;
+    }
+
+    InputStream getInputStream() {
+        return input;
+    }
+
+    OutputStream getOutputStream() {
+        return output;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param timeoutMillis maximum time a read waits for data before it throws {@link SocketTimeoutException}, 0 waits
+     *                      forever
+     */
+    void setTimeout(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    private final class Input extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (readerClosed) {
+                throw new IOException("stream closed");
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final long read = readPosition;
+            final int available = awaitData(read);
+            if (available < 0) {
+                return -1;
+            }
+            final int count = Math.min(len, available);
+            final int index = (int) (read % capacity);
+            final int first = Math.min(count, capacity - index);
+            System.arraycopy(buffer, index, b, off, first);
+            if (first < count) {
+                System.arraycopy(buffer, 0, b, off + first, count - first);
+            }
+            readPosition = read + count;
+            LockSupport.unpark(waitingWriter);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (readerClosed) {
+                throw new IOException("stream closed");
+            }
+            return (int) (writePosition - readPosition);
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            LockSupport.unpark(waitingWriter);
+        }
+
+        /**
+         * @return number of readable bytes or -1 on end of stream
+         */
+        private int awaitData(long read) throws IOException {
+            final int timeout = timeoutMillis;
+            final long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+            while (true) {
+                // check the position before the flag, the writer may have written and closed meanwhile
+                int available = (int) (writePosition - read);
+                if (available > 0) {
+                    return available;
+                }
+                if (writerClosed) {
+                    available = (int) (writePosition - read);
+                    return available > 0 ? available : -1;
+                }
+                waitingReader = Thread.currentThread();
+                try {
+                    if (writePosition != read || writerClosed) {
+                        continue;
+                    }
+                    if (timeout > 0) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new SocketTimeoutException("Read timed out");
+                        }
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                    if (Thread.interrupted()) {
+                        throw new InterruptedIOException("interrupted while waiting for data");
+                    }
+                } finally {
+                    waitingReader = null;
+                }
+            }
+        }
+    }
+
+    private final class Output extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (writerClosed) {
+                throw new IOException("stream closed");
+            }
+            while (len > 0) {
+                final long written = writePosition;
+                final int free = awaitSpace(written);
+                final int count = Math.min(len, free);
+                final int index = (int) (written % capacity);
+                final int first = Math.min(count, capacity - index);
+                System.arraycopy(b, off, buffer, index, first);
+                if (first < count) {
+                    System.arraycopy(b, off + first, buffer, 0, count - first);
+                }
+                writePosition = written + count;
+                LockSupport.unpark(waitingReader);
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() {
+            writerClosed = true;
+            LockSupport.unpark(waitingReader);
+        }
+
+        private int awaitSpace(long written) throws IOException {
+            while (true) {
+                if (readerClosed) {
+                    throw new IOException("pipe closed by reader");
+                }
+                final int free = capacity - (int) (written - readPosition);
+                if (free > 0) {
+                    return free;
+                }
+                waitingWriter = Thread.currentThread();
+                try {
+                    if (readPosition != written - capacity || readerClosed) {
+                        continue;
+                    }
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedIOException("interrupted while waiting for the reader");
+                    }
+                } finally {
+                    waitingWriter = null;
+                }
+            }
+        }
+    }
+}
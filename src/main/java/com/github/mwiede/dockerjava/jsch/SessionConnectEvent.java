@@ -0,0 +1,12 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * an ssh session was connected and authenticated, see {@link FlightRecorderEvent}
+ */
+class SessionConnectEvent extends FlightRecorderEvent {
+
+    String host;
+    int port;
+    String user;
+    boolean success;
+}
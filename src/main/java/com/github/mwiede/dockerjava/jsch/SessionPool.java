@@ -0,0 +1,358 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads channels over up to {@code maxSessions} ssh sessions to the same host, because sshd limits the number of
+ * channels per session (MaxSessions, 10 by default in OpenSSH). Additional sessions are only connected when all existing
+ * ones are busy.
+ */
+class SessionPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionPool.class);
+
+    interface SessionFactory {
+        Session create() throws IOException, JSchException;
+    }
+
+    /**
+     * sessions leased from the {@link SessionRegistry}
+     */
+    interface SharedSessions {
+        Session acquire() throws IOException, JSchException;
+
+        void release(Session session);
+    }
+
+    static final class PooledSession {
+
+        private final Session session;
+        private final boolean external;
+        private final boolean shared;
+        private final AtomicInteger channels = new AtomicInteger();
+        private volatile long saturatedUntil;
+        private volatile long roundTripNanos = -1;
+        private volatile boolean dead;
+        private int missedProbes;
+
+        PooledSession(Session session, boolean external) {
+            this(session, external, false);
+        }
+
+        PooledSession(Session session, boolean external, boolean shared) {
+            this.session = session;
+            this.external = external;
+            this.shared = shared;
+            this.saturatedUntil = System.nanoTime();
+        }
+
+        Session getSession() {
+            return session;
+        }
+
+        /**
+         * @return measured round trip time or -1, if it was not measured yet
+         */
+        long getRoundTripNanos() {
+            return roundTripNanos;
+        }
+
+        void setRoundTripNanos(long roundTripNanos) {
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        boolean isSaturated(long now) {
+            return now - saturatedUntil < 0;
+        }
+
+        boolean isExternal() {
+            return external;
+        }
+
+        /**
+         * @return whether the session is connected and was not declared dead by the {@link SessionSupervisor}
+         */
+        boolean isAlive() {
+            return !dead && session.isConnected();
+        }
+
+        /**
+         * the session stopped answering, so it is not used for new channels anymore, even if jsch still thinks it is
+         * connected
+         */
+        void markDead() {
+            dead = true;
+        }
+
+        /**
+         * only called by the {@link SessionSupervisor}
+         *
+         * @return number of consecutive probes, which were not answered in time
+         */
+        int probeMissed() {
+            return ++missedProbes;
+        }
+
+        void probeAnswered() {
+            missedProbes = 0;
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final SharedSessions sharedSessions;
+    private final int maxSessions;
+    private final long saturationBackoffNanos;
+
+    // guarded by this
+    private final List<PooledSession> sessions = new ArrayList<>();
+    private int pendingSessions;
+    private boolean closed;
+
+    private volatile SessionSupervisor supervisor;
+
+    SessionPool(Session initialSession, boolean external, SessionFactory sessionFactory, int maxSessions,
+            Duration saturationBackoff) {
+        this(initialSession, external, null, sessionFactory, maxSessions, saturationBackoff);
+    }
+
+    /**
+     * @param sharedSessions if set, the initial session and its replacements are leased from the
+     *                       {@link SessionRegistry}, additional sessions are still connected by the factory
+     */
+    SessionPool(Session initialSession, boolean external, SharedSessions sharedSessions,
+            SessionFactory sessionFactory, int maxSessions, Duration saturationBackoff) {
+        this(sharedSessions, sessionFactory, maxSessions, saturationBackoff);
+        this.sessions.add(new PooledSession(initialSession, external, !external && sharedSessions != null));
+    }
+
+    /**
+     * pool without an initial session, the first one is connected on the first {@link #acquire()}
+     */
+    SessionPool(SessionFactory sessionFactory, int maxSessions, Duration saturationBackoff) {
+        this(null, sessionFactory, maxSessions, saturationBackoff);
+    }
+
+    private SessionPool(SharedSessions sharedSessions, SessionFactory sessionFactory, int maxSessions,
+            Duration saturationBackoff) {
+        this.sharedSessions = sharedSessions;
+        this.sessionFactory = sessionFactory;
+        this.maxSessions = maxSessions;
+        this.saturationBackoffNanos = saturationBackoff.toNanos();
+    }
+
+    /**
+     * picks the least loaded session, which is not saturated. A new session is connected, if every session has at
+     * least one channel open and the pool is not exhausted yet. If no session is alive anymore, the
+     * {@link SessionSupervisor} reconnects one, while concurrent callers wait for that single handshake.
+     */
+    PooledSession acquire() throws IOException, JSchException {
+        while (true) {
+            PooledSession best;
+            final boolean down;
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("session pool is closed");
+                }
+                removeDisconnected();
+                best = leastLoaded();
+                down = supervisor != null && anyConnected() == null;
+                if (!down) {
+                    final boolean busy = best == null || best.channels.get() > 0;
+                    if (!busy || sessions.size() + pendingSessions >= maxSessions) {
+                        if (best == null) {
+                            best = anyConnected();
+                        }
+                        if (best == null) {
+                            throw new IOException("no connected ssh session available");
+                        }
+                        best.channels.incrementAndGet();
+                        return best;
+                    }
+                    pendingSessions++;
+                }
+            }
+            if (down) {
+                supervisor.awaitReconnect();
+                continue;
+            }
+            return grow(best);
+        }
+    }
+
+    private PooledSession grow(PooledSession best) throws IOException, JSchException {
+        final Session newSession;
+        try {
+            newSession = sessionFactory.create();
+        } catch (IOException | JSchException e) {
+            synchronized (this) {
+                pendingSessions--;
+                if (best == null) {
+                    best = anyConnected();
+                }
+                if (best == null) {
+                    throw e;
+                }
+                logger.warn("Failed to open additional ssh session, sharing an existing one", e);
+                best.channels.incrementAndGet();
+                return best;
+            }
+        }
+        synchronized (this) {
+            pendingSessions--;
+            if (closed) {
+                newSession.disconnect();
+                throw new IOException("session pool is closed");
+            }
+            best = new PooledSession(newSession, false);
+            best.channels.incrementAndGet();
+            sessions.add(best);
+            logger.debug("Opened ssh session {} of {}", sessions.size(), maxSessions);
+            return best;
+        }
+    }
+
+    /**
+     * connects a session replacing the lost ones, called by the {@link SessionSupervisor}
+     *
+     * @return the new session
+     */
+    Session reconnect() throws IOException, JSchException {
+        final boolean shared = sharedSessions != null;
+        final Session session = shared ? sharedSessions.acquire() : sessionFactory.create();
+        synchronized (this) {
+            if (!closed) {
+                removeDisconnected();
+                sessions.add(new PooledSession(session, false, shared));
+                return session;
+            }
+        }
+        close(new PooledSession(session, false, shared));
+        throw new IOException("session pool is closed");
+    }
+
+    /**
+     * @return the sessions currently in the pool, including dead ones
+     */
+    synchronized List<PooledSession> snapshot() {
+        return new ArrayList<>(sessions);
+    }
+
+    /**
+     * @return whether at least one session is alive
+     */
+    synchronized boolean isUp() {
+        return anyConnected() != null;
+    }
+
+    void setSupervisor(SessionSupervisor supervisor) {
+        this.supervisor = supervisor;
+    }
+
+    void release(PooledSession pooledSession) {
+        pooledSession.channels.decrementAndGet();
+    }
+
+    /**
+     * the server refused to open another channel on this session, so it is avoided until the backoff expired
+     */
+    void markSaturated(PooledSession pooledSession) {
+        logger.debug("ssh session saturated with {} channels", pooledSession.channels.get());
+        pooledSession.saturatedUntil = System.nanoTime() + saturationBackoffNanos;
+    }
+
+    int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * @return a connected session, e.g. to run remote commands or to query server properties
+     */
+    Session primary() throws IOException {
+        while (true) {
+            synchronized (this) {
+                final PooledSession pooledSession = anyConnected();
+                if (pooledSession != null) {
+                    return pooledSession.session;
+                }
+                if (closed || supervisor == null) {
+                    throw new IOException("no connected ssh session available");
+                }
+            }
+            supervisor.awaitReconnect();
+        }
+    }
+
+    /**
+     * disconnects all sessions, which were opened by this pool
+     */
+    void disconnect() {
+        if (supervisor != null) {
+            supervisor.close();
+        }
+        final List<PooledSession> toDisconnect;
+        synchronized (this) {
+            closed = true;
+            toDisconnect = new ArrayList<>(sessions);
+            sessions.clear();
+        }
+        for (PooledSession pooledSession : toDisconnect) {
+            close(pooledSession);
+        }
+    }
+
+    private void close(PooledSession pooledSession) {
+        if (pooledSession.shared) {
+            sharedSessions.release(pooledSession.session);
+        } else if (!pooledSession.external) {
+            pooledSession.session.disconnect();
+        }
+    }
+
+    private void removeDisconnected() {
+        sessions.removeIf(s -> {
+            if (s.external || s.isAlive()) {
+                return false;
+            }
+            if (s.shared) {
+                sharedSessions.release(s.session);
+            }
+            return true;
+        });
+    }
+
+    private PooledSession leastLoaded() {
+        final long now = System.nanoTime();
+        PooledSession best = null;
+        for (PooledSession candidate : sessions) {
+            if (!candidate.isAlive() || candidate.isSaturated(now)) {
+                continue;
+            }
+            if (best == null || candidate.channels.get() < best.channels.get()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private PooledSession anyConnected() {
+        PooledSession best = null;
+        for (PooledSession candidate : sessions) {
+            if (!candidate.isAlive()) {
+                continue;
+            }
+            if (best == null || candidate.saturatedUntil - best.saturatedUntil < 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
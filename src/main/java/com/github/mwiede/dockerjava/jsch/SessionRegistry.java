@@ -0,0 +1,304 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide registry of ssh sessions, which are shared by all clients connecting to the same user, host, port and
+ * identity. Sessions are reference counted, a session without leases is disconnected after its idle timeout, or
+ * earlier, if the number of open sessions exceeds the limit and it is the least recently used one.
+ * <p>
+ * Settings of the session, like user info and jsch config, are taken from the client, which connected it first. The
+ * limit is the largest one requested by the open clients, so a client asking for fewer sessions does not evict the
+ * sessions of another one.
+ */
+class SessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionRegistry.class);
+
+    static final int DEFAULT_MAX_SESSIONS = 64;
+    private static final long SWEEP_INTERVAL_MILLIS = 1000;
+
+    private static final SessionRegistry SHARED = new SessionRegistry(DEFAULT_MAX_SESSIONS);
+
+    static final class Key {
+
+        private final String user;
+        private final String host;
+        private final int port;
+        private final Object identity;
+
+        /**
+         * @param identity identity file or repository or {@code null}, if the identities of the ssh config are used
+         */
+        Key(String user, String host, int port, Object identity) {
+            this.user = user;
+            this.host = host;
+            this.port = port;
+            this.identity = identity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return port == key.port && Objects.equals(user, key.user) && Objects.equals(host, key.host)
+                    && Objects.equals(identity, key.identity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(user, host, port, identity);
+        }
+
+        @Override
+        public String toString() {
+            return (user != null ? user + "@" : "") + host + ":" + port;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Key key;
+        private final Session session;
+        private int leases;
+        private long lastUsed;
+        private long idleTimeoutNanos;
+
+        Entry(Key key, Session session) {
+            this.key = key;
+            this.session = session;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    // guarded by this
+    private final Map<Key, Entry> current = new HashMap<>();
+    private final Map<Key, CompletableFuture<Entry>> connecting = new HashMap<>();
+    private final Map<Session, Entry> bySession = new IdentityHashMap<>();
+    private final List<Integer> requestedMaxSessions = new ArrayList<>();
+    private final int defaultMaxSessions;
+    private ScheduledThreadPoolExecutor sweeper;
+
+    /**
+     * @param defaultMaxSessions limit, as long as no client requested one
+     */
+    SessionRegistry(int defaultMaxSessions) {
+        this.defaultMaxSessions = defaultMaxSessions;
+    }
+
+    static SessionRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * adds the limit of a client, until it is withdrawn with {@link #withdrawMaxSessions(int)}
+     */
+    synchronized void requestMaxSessions(int maxSessions) {
+        requestedMaxSessions.add(maxSessions);
+    }
+
+    synchronized void withdrawMaxSessions(int maxSessions) {
+        requestedMaxSessions.remove(Integer.valueOf(maxSessions));
+    }
+
+    /**
+     * @return the largest requested limit, or the default, if none is requested
+     */
+    synchronized int getMaxSessions() {
+        return requestedMaxSessions.isEmpty() ? defaultMaxSessions : Collections.max(requestedMaxSessions);
+    }
+
+    /**
+     * leases the session for the key. Only one session is connected per key at a time, concurrent callers wait for
+     * it.
+     */
+    Session acquire(Key key, SessionPool.SessionFactory sessionFactory) throws IOException, JSchException {
+        final CompletableFuture<Entry> pending;
+        final boolean owner;
+        synchronized (this) {
+            final Entry entry = current.get(key);
+            if (entry != null && entry.session.isConnected()) {
+                entry.leases++;
+                return entry.session;
+            }
+            if (connecting.containsKey(key)) {
+                pending = connecting.get(key);
+                owner = false;
+            } else {
+                pending = new CompletableFuture<>();
+                connecting.put(key, pending);
+                owner = true;
+            }
+        }
+        if (owner) {
+            connect(key, sessionFactory, pending);
+        }
+        final Entry entry;
+        try {
+            entry = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the ssh session to " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JSchException) {
+                throw (JSchException) e.getCause();
+            }
+            throw new IOException("Failed to connect ssh session to " + key, e.getCause());
+        }
+        synchronized (this) {
+            if (owner || entry.session.isConnected()) {
+                entry.leases++;
+                return entry.session;
+            }
+        }
+        // lost right after it was connected, try again
+        return acquire(key, sessionFactory);
+    }
+
+    /**
+     * gives the lease back, the session stays connected for the idle timeout
+     */
+    void release(Session session, Duration idleTimeout) {
+        final List<Session> toDisconnect = new ArrayList<>();
+        synchronized (this) {
+            final Entry entry = bySession.get(session);
+            if (entry == null || entry.leases == 0) {
+                return;
+            }
+            entry.leases--;
+            entry.lastUsed = System.nanoTime();
+            entry.idleTimeoutNanos = idleTimeout.toNanos();
+            if (entry.leases == 0) {
+                if (idleTimeout.isZero() || current.get(entry.key) != entry || !session.isConnected()) {
+                    remove(entry, toDisconnect);
+                } else {
+                    startSweeper();
+                }
+            }
+        }
+        disconnect(toDisconnect);
+    }
+
+    /**
+     * @return number of sessions currently open
+     */
+    synchronized int size() {
+        return bySession.size();
+    }
+
+    private void connect(Key key, SessionPool.SessionFactory sessionFactory, CompletableFuture<Entry> pending) {
+        final List<Session> toDisconnect = new ArrayList<>();
+        try {
+            synchronized (this) {
+                evictLeastRecentlyUsed(getMaxSessions() - 1, toDisconnect);
+            }
+            disconnect(toDisconnect);
+            final Session session = sessionFactory.create();
+            final Entry entry = new Entry(key, session);
+            synchronized (this) {
+                final Entry previous = current.put(key, entry);
+                if (previous != null && previous.leases == 0) {
+                    remove(previous, toDisconnect);
+                }
+                bySession.put(session, entry);
+                connecting.remove(key);
+            }
+            logger.debug("Connected shared ssh session to {}, {} open", key, size());
+            pending.complete(entry);
+        } catch (IOException | JSchException | RuntimeException e) {
+            synchronized (this) {
+                connecting.remove(key);
+            }
+            pending.completeExceptionally(e);
+        }
+        disconnect(toDisconnect);
+    }
+
+    /**
+     * disconnects the least recently used idle sessions, until at most {@code limit} sessions are open. Sessions in
+     * use are never disconnected.
+     */
+    private void evictLeastRecentlyUsed(int limit, List<Session> toDisconnect) {
+        while (bySession.size() > limit) {
+            Entry oldest = null;
+            for (Entry entry : bySession.values()) {
+                if (entry.leases == 0 && (oldest == null || entry.lastUsed - oldest.lastUsed < 0)) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            logger.debug("Evicting least recently used ssh session to {}", oldest.key);
+            remove(oldest, toDisconnect);
+        }
+    }
+
+    private void sweep() {
+        final List<Session> toDisconnect = new ArrayList<>();
+        synchronized (this) {
+            final long now = System.nanoTime();
+            for (Entry entry : new ArrayList<>(bySession.values())) {
+                if (entry.leases == 0
+                        && (now - entry.lastUsed >= entry.idleTimeoutNanos || !entry.session.isConnected())) {
+                    logger.debug("Disconnecting idle ssh session to {}", entry.key);
+                    remove(entry, toDisconnect);
+                }
+            }
+            if (bySession.values().stream().noneMatch(entry -> entry.leases == 0)) {
+                sweeper.shutdown();
+                sweeper = null;
+            }
+        }
+        disconnect(toDisconnect);
+    }
+
+    private void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jsch-session-registry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void remove(Entry entry, List<Session> toDisconnect) {
+        bySession.remove(entry.session);
+        current.remove(entry.key, entry);
+        toDisconnect.add(entry.session);
+    }
+
+    private static void disconnect(List<Session> sessions) {
+        for (Session session : sessions) {
+            session.disconnect();
+        }
+        sessions.clear();
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the sessions of a {@link SessionPool} and replaces them, when they are gone. Every probe interval each session
+ * is asked to open a session channel, which takes one round trip and also refreshes the measured round trip time. A
+ * session, which misses {@link #MAX_MISSED_PROBES} probes in a row, is declared dead and disconnected.
+ * <p>
+ * When no session is alive anymore, exactly one reconnect is in flight at a time, no matter how many requests are
+ * waiting for it. Failed attempts back off exponentially with jitter, so that many clients losing the same host do not
+ * reconnect in lockstep.
+ */
+class SessionSupervisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionSupervisor.class);
+
+    static final int MAX_MISSED_PROBES = 3;
+
+    private final SessionPool sessionPool;
+    private final long probeIntervalMillis;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // guarded by this
+    private CompletableFuture<Void> reconnecting;
+    private long backoffNanos;
+    private long nextAttemptAt = System.nanoTime();
+    private Exception lastFailure;
+    private boolean retryScheduled;
+    private boolean closed;
+
+    /**
+     * @param probeInterval {@link Duration#ZERO} disables probing, sessions are then only replaced on demand
+     */
+    SessionSupervisor(SessionPool sessionPool, Duration probeInterval, Duration minBackoff, Duration maxBackoff) {
+        this.sessionPool = sessionPool;
+        this.probeIntervalMillis = probeInterval.toMillis();
+        this.minBackoffNanos = minBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(minBackoffNanos, maxBackoff.toNanos());
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jsch-session-supervisor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setKeepAliveTime(1, TimeUnit.MINUTES);
+        scheduler.allowCoreThreadTimeOut(probeIntervalMillis <= 0);
+        sessionPool.setSupervisor(this);
+        if (probeIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::probe, probeIntervalMillis, probeIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * blocks until a new session was added to the pool, either by this thread or by a concurrent one. While backing
+     * off after a failed attempt, it fails immediately.
+     */
+    void awaitReconnect() throws IOException {
+        final CompletableFuture<Void> attempt;
+        final boolean owner;
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("session pool is closed");
+            }
+            if (reconnecting == null) {
+                final long remaining = nextAttemptAt - System.nanoTime();
+                if (remaining > 0) {
+                    throw new IOException("ssh session is down, next reconnect attempt in "
+                            + TimeUnit.NANOSECONDS.toMillis(remaining) + " ms", lastFailure);
+                }
+                reconnecting = new CompletableFuture<>();
+                owner = true;
+            } else {
+                owner = false;
+            }
+            attempt = reconnecting;
+        }
+        if (owner) {
+            reconnect(attempt);
+        }
+        try {
+            attempt.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the ssh session");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to reconnect ssh session", e.getCause());
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * opening a session channel takes exactly one round trip, no process is spawned on the server for it
+     */
+    static long measureRoundTrip(Session session, int timeout) throws JSchException {
+        Channel probe = null;
+        try {
+            probe = session.openChannel("session");
+            final long start = System.nanoTime();
+            probe.connect(timeout);
+            return Math.max(1, System.nanoTime() - start);
+        } finally {
+            if (probe != null) {
+                probe.disconnect();
+            }
+        }
+    }
+
+    private void probe() {
+        for (SessionPool.PooledSession pooledSession : sessionPool.snapshot()) {
+            if (!pooledSession.isAlive()) {
+                continue;
+            }
+            final Session session = pooledSession.getSession();
+            final long start = System.nanoTime();
+            try {
+                pooledSession.setRoundTripNanos(measureRoundTrip(session, (int) probeIntervalMillis));
+                pooledSession.probeAnswered();
+            } catch (JSchException e) {
+                // a quick refusal means the channel limit was reached, the session itself is fine
+                final boolean unanswered = System.nanoTime() - start >= TimeUnit.MILLISECONDS
+                        .toNanos(probeIntervalMillis);
+                if (session.isConnected() && unanswered && pooledSession.probeMissed() >= MAX_MISSED_PROBES) {
+                    logger.warn("ssh session to {} did not answer {} probes, replacing it", session.getHost(),
+                            MAX_MISSED_PROBES);
+                    pooledSession.markDead();
+                    if (!pooledSession.isExternal()) {
+                        session.disconnect();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.debug("Failed to probe ssh session to {}", session.getHost(), e);
+            }
+        }
+        if (!sessionPool.isUp()) {
+            reconnectInBackground();
+        }
+    }
+
+    private void reconnectInBackground() {
+        final CompletableFuture<Void> attempt;
+        synchronized (this) {
+            retryScheduled = false;
+            if (closed || reconnecting != null || nextAttemptAt - System.nanoTime() > 0 || sessionPool.isUp()) {
+                return;
+            }
+            attempt = reconnecting = new CompletableFuture<>();
+        }
+        reconnect(attempt);
+    }
+
+    private void reconnect(CompletableFuture<Void> attempt) {
+        try {
+            final Session session = sessionPool.reconnect();
+            synchronized (this) {
+                backoffNanos = 0;
+                nextAttemptAt = System.nanoTime();
+                lastFailure = null;
+                reconnecting = null;
+            }
+            logger.info("Connected ssh session to {}", session.getHost());
+            attempt.complete(null);
+        } catch (IOException | JSchException | RuntimeException e) {
+            final long delay;
+            synchronized (this) {
+                backoffNanos = backoffNanos == 0 ? minBackoffNanos : Math.min(maxBackoffNanos, backoffNanos * 2);
+                // between half and the full backoff
+                delay = backoffNanos / 2 + ThreadLocalRandom.current().nextLong(backoffNanos / 2 + 1);
+                nextAttemptAt = System.nanoTime() + delay;
+                lastFailure = e;
+                reconnecting = null;
+                if (!closed && probeIntervalMillis > 0 && !retryScheduled) {
+                    retryScheduled = true;
+                    scheduler.schedule(this::reconnectInBackground, delay, TimeUnit.NANOSECONDS);
+                }
+            }
+            logger.warn("Failed to connect ssh session, next attempt in {} ms", TimeUnit.NANOSECONDS.toMillis(delay),
+                    e);
+            attempt.completeExceptionally(e);
+        }
+    }
+}
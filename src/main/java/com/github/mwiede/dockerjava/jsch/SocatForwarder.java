@@ -0,0 +1,163 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.api.model.Container;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One socat container per client, which is shared by all sockets. It is started on first use, or adopted if a running
+ * container with the same {@link SocatHandler#SOCAT_LABEL} exists on the host. Every client using the container holds a
+ * lease on it, and the last one giving it back on {@link #close()} removes the container.
+ */
+class SocatForwarder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocatForwarder.class);
+
+    private final SessionPool sessionPool;
+    private final SocatReaper reaper;
+    private final JschDockerConfig config;
+    private final String lease = UUID.randomUUID().toString();
+
+    // guarded by this
+    private Container container;
+    private int references;
+    private boolean closed;
+    private CompletableFuture<?> prepared = CompletableFuture.completedFuture(null);
+    private volatile long lastStartupMillis = -1;
+
+    SocatForwarder(SessionPool sessionPool, SocatReaper reaper, JschDockerConfig config) {
+        this.sessionPool = sessionPool;
+        this.reaper = reaper;
+        this.config = config;
+    }
+
+    /**
+     * socat is used when requested, and on windows hosts, which can't forward the docker socket
+     */
+    static boolean isRequired(JschDockerConfig config, Session session) {
+        return config.isUseSocat() || unixSocketOnWindows(config, session);
+    }
+
+    private static boolean unixSocketOnWindows(JschDockerConfig config, Session session) {
+        return config.isUseSocket() && config.getSocketPath().equalsIgnoreCase(JschDockerConfig.VAR_RUN_DOCKER_SOCK)
+                && isWindows(session);
+    }
+
+    /**
+     * @return whether the ssh server identifies as windows, which has no docker unix socket to forward
+     */
+    static boolean isWindows(Session session) {
+        return session.getServerVersion().toLowerCase(Locale.getDefault()).contains("windows");
+    }
+
+    /**
+     * makes sure the socat image is present on the host in the background, so that the first {@link #acquire()} does
+     * not have to wait for it to be pulled
+     */
+    synchronized void prepare() throws IOException {
+        prepared = SocatHandler.prepareSocat(sessionPool.primary(), config.getAdditionalFileToSource(),
+                config.getMetrics());
+    }
+
+    /**
+     * @return milliseconds the last start or adoption of the container took, or -1 if there was none yet
+     */
+    long getLastStartupMillis() {
+        return lastStartupMillis;
+    }
+
+    /**
+     * @return the running forwarder, which has to be given back by {@link #release(Container)}
+     */
+    synchronized Container acquire() throws IOException, JSchException {
+        if (closed) {
+            throw new IOException("socat forwarder is closed");
+        }
+        if (container == null) {
+            final long start = System.nanoTime();
+            container = SocatHandler.findSocat(sessionPool.primary(), config.getSocketPath(),
+                    config.getAdditionalFileToSource(), config.getMetrics());
+            if (container != null && !SocatHandler.lease(sessionPool.primary(), container.getId(), lease,
+                    config.getAdditionalFileToSource(), config.getMetrics())) {
+                logger.debug("socat container {} stopped before it could be adopted", container.getId());
+                container = null;
+            }
+            if (container != null) {
+                logger.debug("Adopted socat container {}", container.getId());
+            } else {
+                awaitPrepared();
+                container = SocatHandler.startSocat(sessionPool.primary(), config.getSocatFlags(),
+                        config.getSocketPath(), config.getAdditionalFileToSource(), lease, config.getMetrics());
+                logger.debug("Started socat container {}", container.getId());
+            }
+            final long elapsed = System.nanoTime() - start;
+            lastStartupMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            config.getMetrics().socatStarted(elapsed);
+            logger.debug("socat forwarder ready after {} ms", lastStartupMillis);
+        }
+        references++;
+        return container;
+    }
+
+    private void awaitPrepared() throws IOException {
+        try {
+            prepared.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            // docker run pulls the image on its own, if this failed
+            logger.debug("Failed to prepare the socat image", e.getCause());
+        }
+    }
+
+    synchronized void release(Container released) {
+        if (released == container) {
+            references--;
+        }
+    }
+
+    /**
+     * health check after a channel to the forwarded port could not be opened. A forwarder, which is not running anymore,
+     * is forgotten, so that the next {@link #acquire()} replaces it.
+     *
+     * @return whether the forwarder was dead
+     */
+    synchronized boolean verify(Container failed) throws IOException, JSchException {
+        if (container == null || !container.getId().equals(failed.getId())) {
+            // already replaced by another socket
+            return true;
+        }
+        if (SocatHandler.isRunning(sessionPool.primary(), failed.getId(), config.getAdditionalFileToSource(),
+                config.getMetrics())) {
+            return false;
+        }
+        logger.warn("socat container {} is not running anymore, {} sockets were using it", failed.getId(), references);
+        // it might still exist, e.g. when it was adopted from a container started without --rm
+        reaper.reap(failed.getId());
+        container = null;
+        references = 0;
+        return true;
+    }
+
+    /**
+     * gives the lease on the forwarder back to the reaper, regardless of sockets still using it
+     */
+    synchronized void close() {
+        closed = true;
+        if (container != null) {
+            logger.debug("Releasing socat container {}", container.getId());
+            reaper.release(container.getId(), lease);
+            container = null;
+        }
+    }
+}
@@ -2,133 +2,151 @@ package com.github.mwiede.dockerjava.jsch;
 
 import com.github.dockerjava.api.model.Container;
 import com.github.dockerjava.api.model.ContainerPort;
-import com.jcraft.jsch.ChannelExec;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 import org.apache.commons.lang3.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.lang.reflect.Field;
-import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class SocatHandler {
 
     public static final int INTERNAL_SOCAT_PORT = 2377;
-    private static final Logger logger = LoggerFactory.getLogger(SocatHandler.class);
+    public static final String SOCAT_LABEL = "com.github.mwiede.dockerjava.jsch.socat";
+    static final String SOCAT_IMAGE = "alpine/socat";
+    // one file per client using the container, the last one removing its lease removes the container
+    static final String LEASES = "/tmp/jsch-leases";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern BOUND_PORT = Pattern.compile(":(\\d+)$");
+    private static final Pattern PUBLISHED_PORT = Pattern.compile(":(\\d+)->" + INTERNAL_SOCAT_PORT + "/tcp");
 
     private SocatHandler() {
     }
 
     public static Container startSocat(Session session, String socatFlags, String dockerSocketPath, String additionalFileToSource) throws JSchException, IOException {
+        return startSocat(session, socatFlags, dockerSocketPath, additionalFileToSource, null, TransportMetrics.NOOP);
+    }
+
+    /**
+     * @param lease if set, the container is labeled with {@link #SOCAT_LABEL}, so that it can be found by
+     *              {@link #findSocat(Session, String, String, TransportMetrics)}, and the lease is taken, see
+     *              {@link #lease(Session, String, String, String, TransportMetrics)}
+     */
+    static Container startSocat(Session session, String socatFlags, String dockerSocketPath, String additionalFileToSource, String lease, TransportMetrics metrics) throws JSchException, IOException {
+
+        String dockerSocket = dockerSocket(dockerSocketPath);
 
-        String dockerSocket = StringUtils.isEmpty(dockerSocketPath) ? JschDockerConfig.VAR_RUN_DOCKER_SOCK : dockerSocketPath;
+        // named, so that the port can be queried within the same exec, which works in sh as well as in cmd
+        final String containerName = "jsch-socat-" + UUID.randomUUID();
 
-        String command = " docker run -d " +
+        String command = " docker run -d --rm --name " + containerName +
+                (lease != null ? " --label " + SOCAT_LABEL + "=" + dockerSocket : "") +
                 " -p 127.0.0.1:0:" + INTERNAL_SOCAT_PORT +
                 " -v " + dockerSocket + ":/var/run/docker.sock" +
-                "  alpine/socat " + socatFlags +
-                "  tcp-listen:" + INTERNAL_SOCAT_PORT + ",fork,reuseaddr unix-connect:/var/run/docker.sock";
+                "  " + SOCAT_IMAGE + " " + socatFlags +
+                "  tcp-listen:" + INTERNAL_SOCAT_PORT + ",fork,reuseaddr unix-connect:/var/run/docker.sock" +
+                (lease != null ? " && " + leaseCommand(containerName, lease) : "") +
+                " && docker port " + containerName + " " + INTERNAL_SOCAT_PORT + "/tcp";
+
+        // first line is the container id, followed by the bindings like 127.0.0.1:32768
+        final String[] lines = runCommand(session, command, additionalFileToSource, metrics).trim().split("\\R");
+        final String containerId = lines[0].trim();
+        for (int i = 1; i < lines.length; i++) {
+            final Matcher matcher = BOUND_PORT.matcher(lines[i].trim());
+            if (matcher.find()) {
+                return toContainer(containerId, Integer.parseInt(matcher.group(1)));
+            }
+        }
+        throw new IllegalStateException("no published port found for socat container " + containerId + " in: " + String.join(" ", lines));
+    }
 
-        final String containerId = runCommand(session, command, additionalFileToSource);
+    /**
+     * pulls the socat image, unless it is already present on the host, so that starting the container does not need to
+     * wait for an implicit pull
+     */
+    static CompletableFuture<RemoteCommandExecutor.CommandResult> prepareSocat(Session session, String additionalFileToSource, TransportMetrics metrics) {
+        return new RemoteCommandExecutor(session, additionalFileToSource, metrics)
+                .executeAsync(" docker image inspect --format {{.Id}} " + SOCAT_IMAGE + " || docker pull " + SOCAT_IMAGE);
+    }
+
+    /**
+     * looks up a running socat container, which was started with a label for the given socket, e.g. by a previous
+     * process
+     *
+     * @return the container or {@code null}, if there is none
+     */
+    static Container findSocat(Session session, String dockerSocketPath, String additionalFileToSource, TransportMetrics metrics) throws JSchException, IOException {
+        final String command = " docker ps --filter label=" + SOCAT_LABEL + "=" + dockerSocket(dockerSocketPath) +
+                " --filter status=running --format \"{{.ID}} {{.Ports}}\"";
+        for (String line : runCommand(session, command, additionalFileToSource, metrics).split("\\R")) {
+            final Matcher matcher = PUBLISHED_PORT.matcher(line);
+            if (matcher.find()) {
+                final String containerId = line.substring(0, line.indexOf(' '));
+                return toContainer(containerId, Integer.parseInt(matcher.group(1)));
+            }
+        }
+        return null;
+    }
 
+    /**
+     * registers a client using the container, so that other clients keep it running until it called
+     * {@link #releaseCommand(String, String)}
+     *
+     * @return whether the lease was taken, which fails if the container is not running anymore
+     */
+    static boolean lease(Session session, String containerId, String lease, String additionalFileToSource, TransportMetrics metrics) throws JSchException, IOException {
         try {
-            final Container container = new Container();
-            final Field id;
-            id = container.getClass().getDeclaredField("id");
-            id.setAccessible(true);
-            id.set(container, containerId);
-
-            /*
-            final String inspectionCommand = String.format("docker inspect " +
-                    "--format=\"{{(index (index .NetworkSettings.Ports \\\"" + INTERNAL_SOCAT_PORT + "/tcp\\\") 0).HostPort}}\" %s",
-                containerId);
-            final String publishedPort = runCommand(session, inspectionCommand);
-            */
-
-            String portCommand = String.format("docker port %s", containerId);
-            final String portResult = runCommand(session, portCommand, additionalFileToSource).trim();
-            final String publishedPort = portResult.substring(portResult.lastIndexOf(':') + 1);
-
-            final Field ports = container.getClass().getField("ports");
-            final ContainerPort containerPort = new ContainerPort()
-                    .withIp("127.0.0.1")
-                    .withPrivatePort(INTERNAL_SOCAT_PORT)
-                    .withPublicPort(Integer.valueOf(publishedPort.trim()));
-            ports.set(container, new ContainerPort[]{containerPort});
-            return container;
-
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException(e);
+            runCommand(session, " " + leaseCommand(containerId, lease), additionalFileToSource, metrics);
+            return true;
+        } catch (RuntimeException e) {
+            // non-zero exit-status, e.g. the container stopped after it was found
+            return false;
         }
+    }
 
+    private static String leaseCommand(String container, String lease) {
+        // double quotes work in sh as well as in cmd
+        return "docker exec " + container + " sh -c \"mkdir -p " + LEASES + " && touch " + LEASES + "/" + lease + "\"";
     }
 
-    private static String runCommand(Session session, String command, String additionalFileToSource) throws JSchException, IOException {
+    /**
+     * gives the lease back and removes the container, if no other lease is left. The command fails, if the container is
+     * still leased.
+     */
+    static String releaseCommand(String containerId, String lease) {
+        return " docker exec " + containerId + " sh -c \"rm -f " + LEASES + "/" + lease + " && rmdir " + LEASES + "\"" +
+                " && docker rm -f " + containerId;
+    }
 
-        ChannelExec channel = (ChannelExec) session.openChannel("exec");
+    static boolean isRunning(Session session, String containerId, String additionalFileToSource, TransportMetrics metrics) throws JSchException, IOException {
+        final String command = " docker ps -q --filter id=" + containerId + " --filter status=running";
+        return StringUtils.isNotBlank(runCommand(session, command, additionalFileToSource, metrics));
+    }
 
-        if (StringUtils.isNotEmpty(additionalFileToSource)) {
-            // e.g. for Windows named pipe support
-            command = " source " + additionalFileToSource + " && " + command;
-        }
+    private static String dockerSocket(String dockerSocketPath) {
+        return StringUtils.isEmpty(dockerSocketPath) ? JschDockerConfig.VAR_RUN_DOCKER_SOCK : dockerSocketPath;
+    }
 
-        try {
-            channel.setCommand(command);
-            logger.debug("running command: {}", command);
-
-            final InputStream in = channel.getInputStream();
-            final InputStream errStream = channel.getErrStream();
-
-            channel.connect();
-
-            StringBuilder outputBuffer = new StringBuilder();
-            StringBuilder errorBuffer = new StringBuilder();
-
-            byte[] tmp = new byte[1024];
-            while (true) {
-
-                while (in.available() > 0) {
-                    int i = in.read(tmp, 0, 1024);
-                    if (i < 0) break;
-                    outputBuffer.append(new String(tmp, 0, i, Charset.defaultCharset()));
-                }
-
-                while (errStream.available() > 0) {
-                    int i = errStream.read(tmp, 0, 1024);
-                    if (i < 0) break;
-                    errorBuffer.append(new String(tmp, Charset.defaultCharset()));
-                }
-
-                if (channel.isClosed()) {
-                    // https://stackoverflow.com/a/47554723/2290153
-                    if ((in.available() > 0) || (errStream.available() > 0)) continue;
-
-                    logger.debug("exit-status: {}", channel.getExitStatus());
-                    logger.debug("stderr:{}", errorBuffer);
-                    logger.debug("stdout: {}", outputBuffer);
-
-                    if (channel.getExitStatus() == 0) {
-                        return outputBuffer.toString();
-                    } else {
-                        throw new RuntimeException("command ended in exit-status:" + channel.getExitStatus() +
-                                " with error message: " + errorBuffer.toString());
-                    }
-                }
-                Thread.sleep(50);
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        } finally {
-            channel.disconnect();
-        }
+    private static Container toContainer(String containerId, int publishedPort) {
+        final Container container = MAPPER.convertValue(Collections.singletonMap("Id", containerId), Container.class);
+        container.ports = new ContainerPort[]{new ContainerPort()
+                .withIp("127.0.0.1")
+                .withPrivatePort(INTERNAL_SOCAT_PORT)
+                .withPublicPort(publishedPort)};
+        return container;
+    }
+
+    private static String runCommand(Session session, String command, String additionalFileToSource, TransportMetrics metrics) throws JSchException, IOException {
+        return new RemoteCommandExecutor(session, additionalFileToSource, metrics).execute(command);
     }
 
     public static void stopSocat(Session session, String containerId, String additionalFileToSource) throws JSchException, IOException {
         final String command = " docker stop " + containerId;
-        runCommand(session, command, additionalFileToSource);
+        runCommand(session, command, additionalFileToSource, TransportMetrics.NOOP);
     }
 }
@@ -0,0 +1,157 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Removes socat containers in the background. Leases given back and containers to remove regardless of their leases
+ * are collected for {@link #BATCH_DELAY_MILLIS} and handled by a single remote command, so closing several clients
+ * costs one exec. A leased container is only removed, when its last lease was given back, and with
+ * {@code docker rm -f}, so nobody waits for docker's stop grace period.
+ */
+class SocatReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocatReaper.class);
+
+    static final long BATCH_DELAY_MILLIS = 500;
+    private static final long CLOSE_TIMEOUT_SECONDS = 15;
+    private static final String KEPT = "kept ";
+
+    private final SessionPool sessionPool;
+    private final JschDockerConfig config;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    // guarded by this
+    private final Map<String, String> pending = new LinkedHashMap<>();
+    private boolean scheduled;
+    private CompletableFuture<?> removing = CompletableFuture.completedFuture(null);
+
+    SocatReaper(SessionPool sessionPool, JschDockerConfig config) {
+        this.sessionPool = sessionPool;
+        this.config = config;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jsch-socat-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setKeepAliveTime(1, TimeUnit.MINUTES);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * schedules the removal of the container, regardless of other clients using it
+     */
+    synchronized void reap(String containerId) {
+        pending.put(containerId, null);
+        schedule();
+    }
+
+    /**
+     * schedules giving back the lease, which removes the container, if no other client holds a lease on it
+     */
+    synchronized void release(String containerId, String lease) {
+        pending.putIfAbsent(containerId, lease);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled && !scheduler.isShutdown()) {
+            scheduled = true;
+            scheduler.schedule(this::removeAsync, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * removes all pending containers and waits for removals still running in the background
+     */
+    void close() {
+        scheduler.shutdownNow();
+        removeAsync();
+        final CompletableFuture<?> inFlight;
+        synchronized (this) {
+            inFlight = removing;
+        }
+        try {
+            inFlight.get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Background removal of socat containers did not finish", e);
+        }
+    }
+
+    private void removeAsync() {
+        final Map<String, String> containers = drain();
+        if (containers.isEmpty()) {
+            return;
+        }
+        CompletableFuture<?> removal = CompletableFuture.completedFuture(null);
+        try {
+            removal = executor().executeAsync(batchCommand(containers)).whenComplete((result, e) -> {
+                if (e != null || !result.isSuccess()) {
+                    logger.warn("Failed to remove socat containers {}: {}", containers.keySet(),
+                            e != null ? e.toString() : result.getStderr());
+                    return;
+                }
+                for (String line : result.getStdout().split("\n")) {
+                    if (line.startsWith(KEPT)) {
+                        logger.debug("Kept socat container {}, which is leased by other clients or gone",
+                                line.substring(KEPT.length()));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to remove socat containers {}", containers.keySet(), e);
+        }
+        synchronized (this) {
+            removing = CompletableFuture.allOf(removing, removal);
+        }
+    }
+
+    /**
+     * @return ids of the pending containers with the lease to give back, or {@code null} to remove them anyway
+     */
+    private synchronized Map<String, String> drain() {
+        final Map<String, String> containers = new LinkedHashMap<>(pending);
+        pending.clear();
+        scheduled = false;
+        return containers;
+    }
+
+    private RemoteCommandExecutor executor() throws IOException {
+        return new RemoteCommandExecutor(sessionPool.primary(), config.getAdditionalFileToSource(), config.getMetrics());
+    }
+
+    /**
+     * gives back the leases one after the other and removes the containers without a lease at the end, so the exit
+     * status is that of the forced removal. A container kept for other leases is printed with {@link #KEPT}.
+     */
+    static String batchCommand(Map<String, String> containers) {
+        final StringJoiner command = new StringJoiner(" ; ", " ", "");
+        final List<String> forced = new ArrayList<>();
+        containers.forEach((containerId, lease) -> {
+            if (lease == null) {
+                forced.add(containerId);
+            } else {
+                command.add(SocatHandler.releaseCommand(containerId, lease).trim() + " || echo " + KEPT
+                        + containerId);
+            }
+        });
+        if (!forced.isEmpty()) {
+            command.add("docker rm -f " + String.join(" ", forced));
+        }
+        return command.toString();
+    }
+}
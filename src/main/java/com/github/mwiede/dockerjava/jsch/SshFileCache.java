@@ -0,0 +1,334 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.ConfigRepository;
+import com.jcraft.jsch.HostKeyRepository;
+import com.jcraft.jsch.Identity;
+import com.jcraft.jsch.IdentityRepository;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.OpenSSHConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of the parsed ssh config, known_hosts files and loaded identities, shared by all clients. An entry
+ * is reloaded, when the modification time or size of its file changed, so creating a client for a known host costs a
+ * stat per file instead of parsing and decrypting.
+ * <p>
+ * {@code IdentityFile} and {@code UserKnownHostsFile} of the ssh config are hidden from jsch, which would load them for
+ * every session, and are taken from this cache instead.
+ */
+final class SshFileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SshFileCache.class);
+
+    static final String IDENTITY_FILE = "IdentityFile";
+    static final String USER_KNOWN_HOSTS_FILE = "UserKnownHostsFile";
+
+    private static final FileCache<ConfigRepository> CONFIGS = new FileCache<>(
+            file -> new CachedConfigRepository(OpenSSHConfig.parseFile(file.getAbsolutePath())));
+
+    private static final FileCache<HostKeyRepository> KNOWN_HOSTS = new FileCache<>(SshFileCache::loadKnownHosts);
+
+    private static final FileCache<Identity> IDENTITIES = new FileCache<>(file -> {
+        final JSch loader = new JSch();
+        loader.addIdentity(file.getAbsolutePath());
+        return new SharedIdentity(loader.getIdentityRepository().getIdentities().firstElement());
+    });
+
+    private SshFileCache() {
+    }
+
+    /**
+     * @return parsed config or {@code null}, if the file does not exist
+     */
+    static ConfigRepository config(File file) throws IOException, JSchException {
+        return CONFIGS.get(file);
+    }
+
+    /**
+     * @return host keys or {@code null}, if the file does not exist
+     */
+    static HostKeyRepository knownHosts(File file) throws IOException, JSchException {
+        return KNOWN_HOSTS.get(file);
+    }
+
+    /**
+     * @return host keys of a {@code UserKnownHostsFile}, which is created by jsch, when the user accepts a key and the
+     * file does not exist yet
+     */
+    static HostKeyRepository userKnownHosts(File file) throws IOException, JSchException {
+        final HostKeyRepository knownHosts = KNOWN_HOSTS.get(file);
+        return knownHosts != null ? knownHosts : loadKnownHosts(file);
+    }
+
+    /**
+     * @return identity, which is decrypted at most once for all sessions, or {@code null}, if the file does not exist
+     */
+    static Identity identity(File file) throws IOException, JSchException {
+        return IDENTITIES.get(file);
+    }
+
+    /**
+     * @return identity files configured for the host, with {@code ~} expanded
+     */
+    static List<File> identityFiles(ConfigRepository configRepository, String host) {
+        final String[] values = ((CachedConfigRepository) configRepository).delegate.getConfig(host)
+                .getValues(IDENTITY_FILE);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        final List<File> files = new ArrayList<>();
+        for (String value : values) {
+            files.add(expandTilde(value));
+        }
+        return files;
+    }
+
+    /**
+     * adds the identities configured for the host, like jsch does for {@code IdentityFile}: they are tried after the
+     * identities of the repository, which is not modified. Files, which can not be loaded, are logged and skipped.
+     *
+     * @return the repository itself, if no identity is configured for the host
+     */
+    static IdentityRepository withConfigIdentities(IdentityRepository repository, ConfigRepository configRepository,
+            String host) {
+        final List<Identity> identities = new ArrayList<>();
+        for (File identityFile : identityFiles(configRepository, host)) {
+            try {
+                final Identity identity = identity(identityFile);
+                if (identity != null) {
+                    identities.add(identity);
+                }
+            } catch (IOException | JSchException e) {
+                logger.warn("Skipping IdentityFile {} of the ssh config: {}", identityFile, e.getMessage());
+            }
+        }
+        return identities.isEmpty() ? repository : new AppendingIdentityRepository(repository, identities);
+    }
+
+    /**
+     * @return known_hosts file configured for the host or {@code null}
+     */
+    static File userKnownHostsFile(ConfigRepository configRepository, String host) {
+        final String value = ((CachedConfigRepository) configRepository).delegate.getConfig(host)
+                .getValue(USER_KNOWN_HOSTS_FILE);
+        return value != null ? expandTilde(value) : null;
+    }
+
+    static void invalidateAll() {
+        CONFIGS.entries.clear();
+        KNOWN_HOSTS.entries.clear();
+        IDENTITIES.entries.clear();
+    }
+
+    private static HostKeyRepository loadKnownHosts(File file) throws JSchException {
+        final JSch loader = new JSch();
+        loader.setKnownHosts(file.getAbsolutePath());
+        return loader.getHostKeyRepository();
+    }
+
+    private static File expandTilde(String path) {
+        return new File(path.startsWith("~") ? System.getProperty("user.home") + path.substring(1) : path);
+    }
+
+    private interface Loader<T> {
+        T load(File file) throws IOException, JSchException;
+    }
+
+    private static final class FileCache<T> {
+
+        private final Loader<T> loader;
+        private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+        FileCache(Loader<T> loader) {
+            this.loader = loader;
+        }
+
+        T get(File file) throws IOException, JSchException {
+            final File absoluteFile = file.getAbsoluteFile();
+            final String key = absoluteFile.getPath();
+            final long lastModified = absoluteFile.lastModified();
+            if (lastModified == 0L) {
+                entries.remove(key);
+                return null;
+            }
+            final long length = absoluteFile.length();
+            final Entry<T> entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                return entry.value;
+            }
+            // concurrent loads of the same file are harmless, the last one wins
+            final T value = loader.load(absoluteFile);
+            entries.put(key, new Entry<>(lastModified, length, value));
+            logger.debug("Loaded {}", key);
+            return value;
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final long lastModified;
+        private final long length;
+        private final T value;
+
+        Entry(long lastModified, long length, T value) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.value = value;
+        }
+    }
+
+    /**
+     * hides the files, which are taken from the cache
+     */
+    private static final class CachedConfigRepository implements ConfigRepository {
+
+        private static final List<String> CACHED_KEYS = Arrays.asList(IDENTITY_FILE, USER_KNOWN_HOSTS_FILE);
+
+        private final ConfigRepository delegate;
+
+        CachedConfigRepository(ConfigRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Config getConfig(String host) {
+            final Config config = delegate.getConfig(host);
+            return new Config() {
+                @Override
+                public String getHostname() {
+                    return config.getHostname();
+                }
+
+                @Override
+                public String getUser() {
+                    return config.getUser();
+                }
+
+                @Override
+                public int getPort() {
+                    return config.getPort();
+                }
+
+                @Override
+                public String getValue(String key) {
+                    return CACHED_KEYS.contains(key) ? null : config.getValue(key);
+                }
+
+                @Override
+                public String[] getValues(String key) {
+                    return CACHED_KEYS.contains(key) ? null : config.getValues(key);
+                }
+            };
+        }
+    }
+
+    /**
+     * tries the identities of the delegate first, then the appended ones. Changes only go to the delegate.
+     */
+    private static final class AppendingIdentityRepository implements IdentityRepository {
+
+        private final IdentityRepository delegate;
+        private final List<Identity> appended;
+
+        AppendingIdentityRepository(IdentityRepository delegate, List<Identity> appended) {
+            this.delegate = delegate;
+            this.appended = appended;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public int getStatus() {
+            return delegate.getStatus();
+        }
+
+        @Override
+        public Vector<Identity> getIdentities() {
+            final Vector<Identity> identities = new Vector<>(delegate.getIdentities());
+            identities.addAll(appended);
+            return identities;
+        }
+
+        @Override
+        public boolean add(byte[] identity) {
+            return delegate.add(identity);
+        }
+
+        @Override
+        public boolean remove(byte[] blob) {
+            return delegate.remove(blob);
+        }
+
+        @Override
+        public void removeAll() {
+            delegate.removeAll();
+        }
+    }
+
+    /**
+     * serializes decryption and signing, since the key pair is shared between sessions. It is never cleared, because
+     * other clients still use it.
+     */
+    private static final class SharedIdentity implements Identity {
+
+        private final Identity delegate;
+
+        SharedIdentity(Identity delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized boolean setPassphrase(byte[] passphrase) throws JSchException {
+            return delegate.setPassphrase(passphrase);
+        }
+
+        @Override
+        public synchronized byte[] getPublicKeyBlob() {
+            return delegate.getPublicKeyBlob();
+        }
+
+        @Override
+        public synchronized byte[] getSignature(byte[] data) {
+            return delegate.getSignature(data);
+        }
+
+        @Override
+        public synchronized byte[] getSignature(byte[] data, String alg) {
+            return delegate.getSignature(data, alg);
+        }
+
+        @Override
+        public String getAlgName() {
+            return delegate.getAlgName();
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public synchronized boolean isEncrypted() {
+            return delegate.isEncrypted();
+        }
+
+        @Override
+        public void clear() {
+        }
+    }
+}
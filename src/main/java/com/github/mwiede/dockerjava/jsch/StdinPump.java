@@ -0,0 +1,71 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okio.BufferedSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies the hijacked stdin of an attach/exec into the connection. Input is copied in chunks and only flushed when the
+ * input would block or {@link #MAX_FLUSH_DELAY_NANOS} passed since the last flush, so that bulk input is sent in full
+ * ssh packets, while interactive input is still sent right away.
+ */
+class StdinPump {
+
+    private static final Logger logger = LoggerFactory.getLogger(StdinPump.class);
+
+    static final int BUFFER_SIZE = 16 * 1024;
+    static final long MAX_FLUSH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final InputStream stdin;
+    private final BufferedSink sink;
+
+    StdinPump(InputStream stdin, BufferedSink sink) {
+        this.stdin = stdin;
+        this.sink = sink;
+    }
+
+    /**
+     * pumps until stdin is exhausted or the sink got closed. The sink is closed afterwards. A failed write means that
+     * the remote end closed stdin, e.g. the process exited before it read all input, so it ends the pump like the end
+     * of stdin does.
+     *
+     * @return number of bytes pumped
+     * @throws IOException if reading stdin failed
+     */
+    long pump() throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try {
+            long lastFlush = System.nanoTime();
+            while (sink.isOpen()) {
+                final int read = stdin.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                try {
+                    sink.write(buffer, 0, read);
+                    final long now = System.nanoTime();
+                    if (stdin.available() <= 0 || now - lastFlush >= MAX_FLUSH_DELAY_NANOS) {
+                        sink.flush();
+                        lastFlush = now;
+                    }
+                } catch (IOException e) {
+                    logger.debug("Remote end closed stdin after {} bytes: {}", total, e.getMessage());
+                    break;
+                }
+                total += read;
+            }
+        } finally {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close stdin of the remote end: {}", e.getMessage());
+            }
+        }
+        return total;
+    }
+}
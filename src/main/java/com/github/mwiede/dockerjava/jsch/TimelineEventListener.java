@@ -0,0 +1,161 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Builds the {@link RequestTimeline} of a call from okhttp's events. okhttp opens the socket on the thread of the
+ * call, so while it connects, the timeline is made available to {@link JschSocket} and {@link ChannelOpener} by
+ * {@link #connecting()}, which add the phases of the channel.
+ */
+class TimelineEventListener extends EventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineEventListener.class);
+
+    private static final ThreadLocal<RequestTimeline> CONNECTING = new ThreadLocal<>();
+
+    static final class Factory implements EventListener.Factory {
+
+        private final Consumer<RequestTimeline> sink;
+        private final Duration slowRequestThreshold;
+
+        /**
+         * @param sink                 optional receiver of all timelines
+         * @param slowRequestThreshold optional duration, from which on the timeline is logged
+         */
+        Factory(Consumer<RequestTimeline> sink, Duration slowRequestThreshold) {
+            this.sink = sink;
+            this.slowRequestThreshold = slowRequestThreshold;
+        }
+
+        @Override
+        public EventListener create(Call call) {
+            final Request request = call.request();
+            final DockerHttpClient.Request originalRequest = request.tag(DockerHttpClient.Request.class);
+            final String path = originalRequest != null ? originalRequest.path() : request.url().encodedPath();
+            return new TimelineEventListener(new RequestTimeline(request.method(), path), sink,
+                    slowRequestThreshold);
+        }
+    }
+
+    private final RequestTimeline timeline;
+    private final Consumer<RequestTimeline> sink;
+    private final Duration slowRequestThreshold;
+
+    // phases follow each other, so one start is enough
+    private long phaseStart;
+    private long requestEnd;
+    private long responseHeadersEnd;
+
+    private TimelineEventListener(RequestTimeline timeline, Consumer<RequestTimeline> sink,
+            Duration slowRequestThreshold) {
+        this.timeline = timeline;
+        this.sink = sink;
+        this.slowRequestThreshold = slowRequestThreshold;
+    }
+
+    /**
+     * @return timeline of the call connecting on this thread, or {@code null}
+     */
+    static RequestTimeline connecting() {
+        return CONNECTING.get();
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        phaseStart = System.nanoTime();
+        CONNECTING.set(timeline);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+        connected();
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol,
+            IOException ioe) {
+        connected();
+    }
+
+    private void connected() {
+        CONNECTING.remove();
+        timeline.add(RequestTimeline.Phase.CONNECT, System.nanoTime() - phaseStart);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        phaseStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        requestEnd(System.nanoTime());
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        requestEnd(System.nanoTime());
+    }
+
+    /**
+     * the body of a request follows its headers, and is missing for a GET
+     */
+    private void requestEnd(long now) {
+        if (requestEnd > phaseStart) {
+            timeline.add(RequestTimeline.Phase.REQUEST, now - requestEnd);
+        } else {
+            timeline.add(RequestTimeline.Phase.REQUEST, now - phaseStart);
+        }
+        requestEnd = now;
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        responseHeadersEnd = System.nanoTime();
+        timeline.add(RequestTimeline.Phase.TIME_TO_FIRST_BYTE, responseHeadersEnd - requestEnd);
+        timeline.setStatusCode(response.code());
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        timeline.add(RequestTimeline.Phase.BODY, System.nanoTime() - responseHeadersEnd);
+    }
+
+    @Override
+    public void callEnd(Call call) {
+        finish(null);
+    }
+
+    @Override
+    public void callFailed(Call call, IOException ioe) {
+        CONNECTING.remove();
+        finish(ioe);
+    }
+
+    private void finish(Exception failure) {
+        timeline.finish(failure);
+        if (slowRequestThreshold != null && timeline.getTotal().compareTo(slowRequestThreshold) >= 0) {
+            logger.warn("Slow request {}", timeline);
+        }
+        if (sink != null) {
+            try {
+                sink.accept(timeline);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to pass on the timeline of {} {}", timeline.getMethod(), timeline.getPath(), e);
+            }
+        }
+    }
+}
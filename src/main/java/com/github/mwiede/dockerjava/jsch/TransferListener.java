@@ -0,0 +1,15 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * Gets notified about the progress of {@link TransferableResponse#transferTo(java.io.OutputStream, TransferListener)}.
+ * It is called on the transferring thread after each chunk, so it should return quickly.
+ */
+@FunctionalInterface
+public interface TransferListener {
+
+    /**
+     * @param bytesTransferred bytes of the body transferred so far
+     * @param contentLength    length of the body or -1, if it is not known, e.g. for chunked responses
+     */
+    void onProgress(long bytesTransferred, long contentLength);
+}
@@ -0,0 +1,67 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Response of {@link JschDockerHttpClient}, which can move its body into a target without going through
+ * {@code read(byte[])} calls. The buffered network data is written directly, e.g. for {@code docker save} into a file:
+ *
+ * <pre>
+ * try (Response response = client.execute(request)) {
+ *     ((TransferableResponse) response).transferTo(Paths.get("image.tar"));
+ * }
+ * </pre>
+ * <p>
+ * The stream returned by {@link #getBody()} shares the position with these methods and overrides
+ * {@code InputStream.transferTo(OutputStream)} with the same fast path.
+ */
+public interface TransferableResponse extends DockerHttpClient.Response {
+
+    /**
+     * writes the rest of the body to the stream, which is neither flushed nor closed
+     *
+     * @return number of bytes written
+     */
+    default long transferTo(OutputStream out) throws IOException {
+        return transferTo(out, null);
+    }
+
+    long transferTo(OutputStream out, TransferListener listener) throws IOException;
+
+    /**
+     * writes the rest of the body to the channel, which must be in blocking mode and is not closed
+     *
+     * @return number of bytes written
+     */
+    default long transferTo(WritableByteChannel channel) throws IOException {
+        return transferTo(channel, null);
+    }
+
+    long transferTo(WritableByteChannel channel, TransferListener listener) throws IOException;
+
+    /**
+     * writes the rest of the body to the file, which is created or truncated
+     *
+     * @return number of bytes written
+     */
+    default long transferTo(Path path) throws IOException {
+        return transferTo(path, null);
+    }
+
+    long transferTo(Path path, TransferListener listener) throws IOException;
+
+    /**
+     * @return bytes of the body consumed so far, through {@link #getBody()} or one of the transfer methods
+     */
+    long getBytesTransferred();
+
+    /**
+     * @return length of the body or -1, if it is not known
+     */
+    long getContentLength();
+}
@@ -0,0 +1,97 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * Receives measurements of the ssh transport, see {@link JschDockerHttpClient.Builder#metrics(TransportMetrics)}. All
+ * methods do nothing by default, so an implementation only overrides what it is interested in.
+ * <p>
+ * Methods are called on the threads doing the work, including jsch's session threads, so they must be cheap and must
+ * not block. {@link MicrometerTransportMetrics} reports into a micrometer registry, which has to be on the classpath
+ * then.
+ */
+public interface TransportMetrics {
+
+    TransportMetrics NOOP = new TransportMetrics() {
+    };
+
+    /**
+     * called when the client was built. The gauges of the client, like {@link JschDockerHttpClient#getActiveChannels()},
+     * can be polled until it is unbound again.
+     */
+    default void bind(JschDockerHttpClient client) {
+    }
+
+    /**
+     * called when the client gets closed
+     */
+    default void unbind(JschDockerHttpClient client) {
+    }
+
+    /**
+     * a channel to the docker daemon was opened
+     *
+     * @param nanos time from asking the pool for a session until the channel was confirmed by the server
+     */
+    default void channelOpened(TransportMode mode, long nanos) {
+    }
+
+    /**
+     * @param mode mode of the channel, or {@code null} if there was no session to open it on
+     */
+    default void channelOpenFailed(TransportMode mode, Exception cause) {
+    }
+
+    /**
+     * bytes received from the docker daemon through an ssh channel
+     */
+    default void bytesReceived(long bytes) {
+    }
+
+    /**
+     * bytes sent to the docker daemon through an ssh channel
+     */
+    default void bytesSent(long bytes) {
+    }
+
+    /**
+     * @param endpoint path of the request without query and api version, with ids and names replaced by placeholders,
+     *                 e.g. {@code /containers/{id}/json}
+     * @param nanos    time until the headers of the response arrived
+     */
+    default void requestCompleted(String method, String endpoint, int statusCode, long nanos) {
+    }
+
+    /**
+     * @param endpoint see {@link #requestCompleted(String, String, int, long)}
+     */
+    default void requestFailed(String method, String endpoint, Exception cause, long nanos) {
+    }
+
+    /**
+     * stdin of an attach or exec was pumped into the connection until it was exhausted
+     */
+    default void hijackPumped(long bytes, long nanos) {
+    }
+
+    default void hijackPumpFailed(Exception cause) {
+    }
+
+    /**
+     * a command run on the remote host, e.g. to start socat, has finished
+     *
+     * @param command the program and its sub command, e.g. {@code docker run}
+     */
+    default void remoteCommandCompleted(String command, int exitStatus, long nanos) {
+    }
+
+    /**
+     * @param command see {@link #remoteCommandCompleted(String, int, long)}
+     */
+    default void remoteCommandFailed(String command, Exception cause) {
+    }
+
+    /**
+     * the socat forwarder was started or adopted
+     */
+    default void socatStarted(long nanos) {
+    }
+}
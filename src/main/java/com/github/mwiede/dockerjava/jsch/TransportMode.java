@@ -0,0 +1,27 @@
+package com.github.mwiede.dockerjava.jsch;
+
+/**
+ * The ways a connection to the docker daemon is tunneled through ssh.
+ */
+public enum TransportMode {
+
+    /**
+     * {@code docker system dial-stdio} in an exec channel, the default
+     */
+    DIAL_STDIO,
+
+    /**
+     * direct-streamlocal channel to the docker unix socket, see {@link JschDockerHttpClient.Builder#useSocket()}
+     */
+    UNIX_SOCKET,
+
+    /**
+     * direct-tcpip channel to a socat container, see {@link JschDockerHttpClient.Builder#useSocat()}
+     */
+    SOCAT,
+
+    /**
+     * direct-tcpip channel to the docker tcp port, see {@link JschDockerHttpClient.Builder#useTcp()}
+     */
+    TCP
+}
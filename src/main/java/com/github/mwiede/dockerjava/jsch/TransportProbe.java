@@ -0,0 +1,230 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selects the transport mode for {@link JschDockerHttpClient.Builder#autoSelect(Duration)}: each candidate mode opens
+ * a channel and sends {@code /_ping}, the one answering fastest wins. Channels are opened by the {@link ChannelOpener}
+ * like those of requests, so they are sized the same way. The time includes opening the channel, because that is paid
+ * for every connection, e.g. spawning {@code docker system dial-stdio}. Selections are cached per user, host, port and
+ * probed targets for their ttl, so later clients skip probing.
+ * <p>
+ * Socat is no candidate, because probing it would start a container.
+ */
+class TransportProbe {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransportProbe.class);
+
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+    // the best of two, so that a slow first open does not decide
+    private static final int ROUNDS = 2;
+
+    private static final byte[] PING = "GET /_ping HTTP/1.1\r\nHost: docker\r\nConnection: close\r\n\r\n"
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private static final Map<String, Selection> SELECTIONS = new ConcurrentHashMap<>();
+
+    private static final class Selection {
+
+        private final TransportMode mode;
+        private final long expiresAtNanos;
+
+        Selection(TransportMode mode, long expiresAtNanos) {
+            this.mode = mode;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private TransportProbe() {
+    }
+
+    /**
+     * @param timeout connect timeout of the client in milliseconds, or 0 for {@value DEFAULT_TIMEOUT_MILLIS}
+     * @return the cached or probed mode, or {@link TransportMode#DIAL_STDIO}, if no candidate answered
+     */
+    static TransportMode select(Session session, JschDockerConfig config, int timeout) {
+        final String key = key(session, config);
+        final Selection cached = SELECTIONS.get(key);
+        if (cached != null && cached.expiresAtNanos - System.nanoTime() > 0) {
+            logger.debug("Using {} selected before for {}", cached.mode, key);
+            return cached.mode;
+        }
+
+        final Map<TransportMode, Long> timings = probe(session, config, timeout > 0 ? timeout
+                : DEFAULT_TIMEOUT_MILLIS);
+        final TransportMode fastest = timings.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+        if (fastest == null) {
+            // not cached, the next client probes again
+            logger.warn("No transport mode answered /_ping on {}, falling back to {}", key, TransportMode.DIAL_STDIO);
+            return TransportMode.DIAL_STDIO;
+        }
+        logger.info("Selected {} for {}: {}", fastest, key, describe(timings));
+        SELECTIONS.put(key, new Selection(fastest, System.nanoTime() + config.getAutoSelectTtl().toNanos()));
+        return fastest;
+    }
+
+    /**
+     * makes the config use the mode, a different mode set explicitly is replaced with a warning
+     */
+    static void apply(TransportMode mode, JschDockerConfig config) {
+        final TransportMode explicit = explicitMode(config);
+        if (explicit != null && explicit != mode) {
+            logger.warn("Automatic selection replaces the configured transport mode {} with {}", explicit, mode);
+        }
+        use(mode, config);
+    }
+
+    /**
+     * forgets all selections
+     */
+    static void clear() {
+        SELECTIONS.clear();
+    }
+
+    static List<TransportMode> candidates(Session session) {
+        if (SocatForwarder.isWindows(session)) {
+            return Arrays.asList(TransportMode.TCP, TransportMode.DIAL_STDIO);
+        }
+        return Arrays.asList(TransportMode.UNIX_SOCKET, TransportMode.TCP, TransportMode.DIAL_STDIO);
+    }
+
+    /**
+     * @return fastest time of each mode, which answered
+     */
+    private static Map<TransportMode, Long> probe(Session session, JschDockerConfig config, int timeout) {
+        // restored afterwards, so that apply sees the configured mode
+        final boolean useSocket = config.isUseSocket();
+        final boolean useTcp = config.isUseTcp();
+        final boolean useSocat = config.isUseSocat();
+        // only the session of the handshake, a refused channel must not connect further ones
+        final SessionPool sessionPool = new SessionPool(session, true, null, 1, Duration.ZERO);
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "jsch-transport-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final Map<TransportMode, Long> timings = new EnumMap<>(TransportMode.class);
+            for (TransportMode mode : candidates(session)) {
+                use(mode, config);
+                final ChannelOpener channelOpener = new ChannelOpener(sessionPool, null, config);
+                for (int round = 0; round < ROUNDS; round++) {
+                    final long nanos = ping(channelOpener, mode, timeout, timer);
+                    if (nanos < 0) {
+                        break;
+                    }
+                    timings.merge(mode, nanos, Math::min);
+                }
+            }
+            return timings;
+        } finally {
+            config.setUseSocket(useSocket);
+            config.setUseTcp(useTcp);
+            config.setUseSocat(useSocat);
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * @return nanoseconds from opening the channel until the status line of the response, or -1 if it failed
+     */
+    private static long ping(ChannelOpener channelOpener, TransportMode mode, int timeout,
+            ScheduledThreadPoolExecutor timer) {
+        final long start = System.nanoTime();
+        JschChannel channel = null;
+        // a daemon, which does not answer, leaves the read blocked
+        ScheduledFuture<?> deadline = null;
+        try {
+            channel = channelOpener.open(timeout);
+            deadline = timer.schedule(channel::close, Math.max(1, timeout - TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - start)), TimeUnit.MILLISECONDS);
+            final OutputStream out = channel.getOutputStream();
+            out.write(PING);
+            out.flush();
+            final String statusLine = readLine(channel.getInputStream());
+            final long nanos = System.nanoTime() - start;
+            if (statusLine.startsWith("HTTP/1.") && statusLine.startsWith(" 200", 8)) {
+                return nanos;
+            }
+            logger.debug("{} answered /_ping with '{}'", mode, statusLine);
+        } catch (IOException e) {
+            logger.debug("{} is not available: {}", mode, e.getMessage());
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        return -1;
+    }
+
+    private static void use(TransportMode mode, JschDockerConfig config) {
+        config.setUseSocket(mode == TransportMode.UNIX_SOCKET);
+        config.setUseTcp(mode == TransportMode.TCP);
+        config.setUseSocat(false);
+    }
+
+    private static TransportMode explicitMode(JschDockerConfig config) {
+        if (config.isUseSocat()) {
+            return TransportMode.SOCAT;
+        }
+        if (config.isUseSocket()) {
+            return TransportMode.UNIX_SOCKET;
+        }
+        return config.isUseTcp() ? TransportMode.TCP : null;
+    }
+
+    /**
+     * @return the line without its line break, or what was read before the channel closed
+     */
+    private static String readLine(InputStream in) throws IOException {
+        final StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private static int tcpPort(JschDockerConfig config) {
+        return config.getTcpPort() != null ? config.getTcpPort() : 2375;
+    }
+
+    private static String key(Session session, JschDockerConfig config) {
+        return session.getUserName() + "@" + session.getHost() + ":" + session.getPort() + " ("
+                + config.getSocketPath() + ", tcp " + tcpPort(config) + ")";
+    }
+
+    private static String describe(Map<TransportMode, Long> timings) {
+        final StringJoiner joiner = new StringJoiner(", ");
+        timings.forEach((mode, nanos) -> joiner.add(mode.name().toLowerCase(Locale.ROOT) + " "
+                + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms"));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Opening a channel to the docker daemon, including retries on other sessions, recorded by JDK Flight Recorder
+ */
+@Name("com.github.mwiede.dockerjava.jsch.ChannelOpen")
+@Label("SSH Channel Open")
+@Description("Opening a channel to the docker daemon, including retries on other sessions")
+@Category({ "Docker", "SSH Transport" })
+@StackTrace(false)
+class ChannelOpenEvent extends Event {
+
+    @Label("Host")
+    String host;
+
+    @Label("Mode")
+    @Description("TCP (direct-tcpip), SOCAT (direct-tcpip to socat), UNIX_SOCKET (direct-streamlocal) or DIAL_STDIO (exec)")
+    String mode;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Retries")
+    @Description("Attempts after the first one, on another session or with a new socat forwarder")
+    int retries;
+}
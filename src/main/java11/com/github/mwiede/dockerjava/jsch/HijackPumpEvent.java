@@ -0,0 +1,27 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Lifetime of the thread pumping stdin of an attach or exec into the connection, recorded by JDK Flight Recorder
+ */
+@Name("com.github.mwiede.dockerjava.jsch.HijackPump")
+@Label("Hijacked Stdin Pump")
+@Description("Lifetime of the thread pumping stdin of an attach or exec into the connection")
+@Category({ "Docker", "SSH Transport" })
+@StackTrace(false)
+class HijackPumpEvent extends Event {
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
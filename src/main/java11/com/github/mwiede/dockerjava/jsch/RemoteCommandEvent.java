@@ -0,0 +1,25 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A command run on the docker host, e.g. to start the socat forwarder, recorded by JDK Flight Recorder
+ */
+@Name("com.github.mwiede.dockerjava.jsch.RemoteCommand")
+@Label("Remote Command")
+@Description("A command run on the docker host, e.g. to start the socat forwarder")
+@Category({ "Docker", "SSH Transport" })
+@StackTrace(false)
+class RemoteCommandEvent extends Event {
+
+    @Label("Command")
+    String command;
+
+    @Label("Exit Status")
+    int exitStatus;
+}
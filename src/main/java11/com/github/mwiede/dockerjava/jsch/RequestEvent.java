@@ -0,0 +1,28 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request to the docker daemon, until its response headers arrived, recorded by JDK Flight Recorder
+ */
+@Name("com.github.mwiede.dockerjava.jsch.Request")
+@Label("Docker Request")
+@Description("A request to the docker daemon, until its response headers arrived")
+@Category({ "Docker", "SSH Transport" })
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status Code")
+    int statusCode;
+}
@@ -0,0 +1,31 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Connect, key exchange and authentication of an ssh session, recorded by JDK Flight Recorder
+ */
+@Name("com.github.mwiede.dockerjava.jsch.SessionConnect")
+@Label("SSH Session Connect")
+@Description("Connect, key exchange and authentication of an ssh session")
+@Category({ "Docker", "SSH Transport" })
+@StackTrace(false)
+class SessionConnectEvent extends Event {
+
+    @Label("Host")
+    String host;
+
+    @Label("Port")
+    int port;
+
+    @Label("User")
+    String user;
+
+    @Label("Success")
+    boolean success;
+}
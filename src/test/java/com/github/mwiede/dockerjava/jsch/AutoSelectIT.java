@@ -0,0 +1,136 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutoSelectIT {
+
+    private static FakeDockerEngine engine;
+    private static EmbeddedSshServer sshServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        engine = new FakeDockerEngine(1024);
+        sshServer = new EmbeddedSshServer(engine.getPort());
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        engine.close();
+    }
+
+    @BeforeEach
+    void forgetSelections() {
+        TransportProbe.clear();
+    }
+
+    @Test
+    void selectionIsCachedForTheHost() throws Exception {
+        final int before = engine.getRequests();
+        final JschDockerHttpClient.Builder first = builder(engine.getPort()).autoSelect();
+        try (DockerHttpClient client = first.build()) {
+            // two pings over each of the three modes
+            assertEquals(6, engine.getRequests() - before);
+            assertEquals(200, ping(client));
+        }
+
+        final int probed = engine.getRequests();
+        final JschDockerHttpClient.Builder second = builder(engine.getPort()).autoSelect();
+        try (DockerHttpClient client = second.build()) {
+            assertEquals(probed, engine.getRequests());
+            assertEquals(200, ping(client));
+        }
+        assertEquals(mode(first.jschDockerConfig), mode(second.jschDockerConfig));
+    }
+
+    @Test
+    void onlyWorkingModesAreSelected() throws Exception {
+        final JschDockerHttpClient.Builder builder = builder(closedPort())
+                .useSocket("/run/user/1000/docker.sock")
+                .autoSelect(Duration.ZERO);
+        try (DockerHttpClient client = builder.build()) {
+            assertEquals(TransportMode.DIAL_STDIO, mode(builder.jschDockerConfig));
+            assertEquals(200, ping(client));
+        }
+    }
+
+    @Test
+    void expiredSelectionIsProbedAgain() throws Exception {
+        try (DockerHttpClient client = builder(engine.getPort()).autoSelect(Duration.ZERO).build()) {
+            assertEquals(200, ping(client));
+        }
+        final int before = engine.getRequests();
+        final JschDockerHttpClient.Builder builder = builder(engine.getPort()).useSocat().autoSelect(Duration.ZERO);
+        try (DockerHttpClient client = builder.build()) {
+            assertEquals(6, engine.getRequests() - before);
+            // explicit modes are replaced with a warning
+            assertFalse(builder.jschDockerConfig.isUseSocat());
+            assertEquals(200, ping(client));
+        }
+    }
+
+    @Test
+    void windowsHostsHaveNoUnixSocket() {
+        assertTrue(TransportProbe.candidates(sessionWithVersion("SSH-2.0-OpenSSH_for_Windows_8.1"))
+                .stream().noneMatch(mode -> mode == TransportMode.UNIX_SOCKET));
+        assertEquals(TransportMode.UNIX_SOCKET,
+                TransportProbe.candidates(sessionWithVersion("SSH-2.0-OpenSSH_9.6p1 Ubuntu-3ubuntu13")).get(0));
+    }
+
+    private static JschDockerHttpClient.Builder builder(int tcpPort) {
+        final JschDockerHttpClient.Builder builder = new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo());
+        builder.jschDockerConfig.setTcpPort(tcpPort);
+        return builder;
+    }
+
+    private static TransportMode mode(JschDockerConfig config) {
+        if (config.isUseSocket()) {
+            return TransportMode.UNIX_SOCKET;
+        }
+        return config.isUseTcp() ? TransportMode.TCP : TransportMode.DIAL_STDIO;
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Session sessionWithVersion(String serverVersion) {
+        final Session session = mock(Session.class);
+        when(session.getServerVersion()).thenReturn(serverVersion);
+        return session;
+    }
+
+    private static int ping(DockerHttpClient client) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path("/_ping").build());
+             InputStream body = response.getBody()) {
+            while (body.read() != -1) {
+                // drain
+            }
+            return response.getStatusCode();
+        }
+    }
+}
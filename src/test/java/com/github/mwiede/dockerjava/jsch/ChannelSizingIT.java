@@ -0,0 +1,123 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * downloads through an embedded ssh server behind a proxy adding 50 ms of latency in each direction. With jsch's default
+ * window of 128 KiB for direct-tcpip channels, a connection can not get faster than 128 KiB per round trip.
+ */
+class ChannelSizingIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChannelSizingIT.class);
+
+    private static final int MB = 1024 * 1024;
+    private static final int PAYLOAD_SIZE = 4 * MB;
+    private static final Duration ONE_WAY_DELAY = Duration.ofMillis(50);
+
+    private static EmbeddedSshServer sshServer;
+    private static LatencyProxy latencyProxy;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        final byte[] payload = new byte[PAYLOAD_SIZE];
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/blob", exchange -> {
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(payload);
+            }
+        });
+        httpServer.start();
+
+        sshServer = new EmbeddedSshServer();
+
+        latencyProxy = new LatencyProxy(sshServer.getPort(), ONE_WAY_DELAY);
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        latencyProxy.close();
+        sshServer.close();
+        httpServer.stop(0);
+    }
+
+    @Test
+    @Timeout(60)
+    void largerWindowSpeedsUpDownloads() throws Exception {
+        final long defaultNanos = download(builder -> builder);
+        final long tunedNanos = download(builder -> builder
+                .channelSizing(TransportMode.TCP, ChannelSizing.window(8 * MB)));
+        LOG.info("downloaded 4 MB in {} ms with the default window, in {} ms with 8 MB",
+                TimeUnit.NANOSECONDS.toMillis(defaultNanos), TimeUnit.NANOSECONDS.toMillis(tunedNanos));
+
+        assertTrue(tunedNanos * 2 < defaultNanos, "default window took " + TimeUnit.NANOSECONDS.toMillis(defaultNanos)
+                + " ms, tuned window took " + TimeUnit.NANOSECONDS.toMillis(tunedNanos) + " ms");
+    }
+
+    @Test
+    @Timeout(60)
+    void autoWindowSizeFollowsRoundTripTime() throws Exception {
+        final long autoNanos = download(builder -> builder.autoWindowSize(80L * MB));
+        LOG.info("downloaded 4 MB in {} ms with auto window", TimeUnit.NANOSECONDS.toMillis(autoNanos));
+
+        final double roundTrips = (double) PAYLOAD_SIZE / ChannelTuner.JSCH_FORWARDING_WINDOW_SIZE;
+        final long defaultWindowBoundNanos = (long) (roundTrips * 2 * ONE_WAY_DELAY.toNanos());
+        assertTrue(autoNanos * 2 < defaultWindowBoundNanos, "auto window took "
+                + TimeUnit.NANOSECONDS.toMillis(autoNanos) + " ms");
+    }
+
+    private long download(UnaryOperator<JschDockerHttpClient.Builder> customizer) throws IOException, JSchException {
+        final Session session = EmbeddedSshServer.connect(latencyProxy.getPort());
+        try (JschDockerHttpClient client = customizer.apply(new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + latencyProxy.getPort()))
+                .sshSession(session)
+                .useTcp(httpServer.getAddress().getPort())).build()) {
+
+            final DockerHttpClient.Request request = DockerHttpClient.Request.builder()
+                    .method(DockerHttpClient.Request.Method.GET)
+                    .path("/blob")
+                    .build();
+
+            final long start = System.nanoTime();
+            long received = 0;
+            try (DockerHttpClient.Response response = client.execute(request);
+                 InputStream body = response.getBody()) {
+                assertEquals(200, response.getStatusCode());
+                final byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    received += read;
+                }
+            }
+            final long elapsed = System.nanoTime() - start;
+
+            assertEquals(PAYLOAD_SIZE, received);
+            return elapsed;
+        } finally {
+            session.disconnect();
+        }
+    }
+}
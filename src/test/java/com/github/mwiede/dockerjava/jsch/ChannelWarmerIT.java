@@ -0,0 +1,125 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChannelWarmerIT {
+
+    private static final Duration LONG = Duration.ofMinutes(1);
+
+    private final ChannelOpener channelOpener = mock(ChannelOpener.class);
+    private ChannelWarmer warmer;
+
+    @AfterEach
+    void close() {
+        if (warmer != null) {
+            warmer.close();
+        }
+    }
+
+    @Test
+    void takenChannelsAreReplaced() throws IOException {
+        when(channelOpener.open(anyInt())).thenAnswer(invocation -> usableChannel());
+        warmer = new ChannelWarmer(channelOpener, 2, 0, LONG, LONG, LONG);
+
+        warmer.warmUp(2);
+        assertEquals(2, warmer.readyChannels());
+
+        assertNotNull(warmer.poll());
+        assertNotNull(warmer.poll());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> warmer.readyChannels() == 2);
+        verify(channelOpener, times(4)).open(anyInt());
+    }
+
+    @Test
+    void staleChannelsAreSkipped() throws IOException {
+        final JschChannel stale = mock(JschChannel.class);
+        final JschChannel usable = usableChannel();
+        when(channelOpener.open(anyInt())).thenReturn(stale, usable);
+        warmer = new ChannelWarmer(channelOpener, 0, 0, LONG, LONG, LONG);
+        warmer.warmUp(2);
+
+        assertSame(usable, warmer.poll());
+        verify(stale).close();
+    }
+
+    @Test
+    void readyChannelsExpire() throws IOException {
+        final JschChannel channel = usableChannel();
+        when(channelOpener.open(anyInt())).thenReturn(channel);
+        warmer = new ChannelWarmer(channelOpener, 1, 0, Duration.ofMillis(200), LONG, LONG);
+        warmer.warmUp(1);
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> warmer.readyChannels() == 0);
+        // closed outside the lock, right after it was removed
+        verify(channel, timeout(1000)).close();
+        // an idle client does not reopen them
+        verify(channelOpener, after(500).times(1)).open(anyInt());
+    }
+
+    @Test
+    void failedRefillIsNotRetriedOnEveryPoll() throws IOException {
+        when(channelOpener.open(anyInt())).thenThrow(new IOException("administratively prohibited"));
+        warmer = new ChannelWarmer(channelOpener, 1, 0, LONG, LONG, LONG);
+        warmer.warmUp(1);
+
+        for (int i = 0; i < 10; i++) {
+            assertNull(warmer.poll());
+        }
+        verify(channelOpener, after(200).times(1)).open(anyInt());
+    }
+
+    @Test
+    void refillResumesAfterTheBackoff() throws Exception {
+        final JschChannel channel = usableChannel();
+        when(channelOpener.open(anyInt())).thenThrow(new IOException("administratively prohibited"))
+                .thenReturn(channel);
+        warmer = new ChannelWarmer(channelOpener, 1, 0, LONG, Duration.ofMillis(200), LONG);
+        warmer.warmUp(1);
+
+        assertNull(warmer.poll());
+        verify(channelOpener, after(100).times(1)).open(anyInt());
+
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertNull(warmer.poll());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> warmer.readyChannels() == 1);
+        verify(channelOpener, times(2)).open(anyInt());
+    }
+
+    @Test
+    void closedWarmerClosesReadyChannels() throws IOException {
+        final JschChannel channel = usableChannel();
+        when(channelOpener.open(anyInt())).thenReturn(channel);
+        warmer = new ChannelWarmer(channelOpener, 1, 0, LONG, LONG, LONG);
+        warmer.warmUp(1);
+
+        warmer.close();
+
+        verify(channel).close();
+        assertNull(warmer.poll());
+        verify(channelOpener, times(1)).open(anyInt());
+    }
+
+    private static JschChannel usableChannel() {
+        final JschChannel channel = mock(JschChannel.class);
+        when(channel.isUsable()).thenReturn(true);
+        return channel;
+    }
+}
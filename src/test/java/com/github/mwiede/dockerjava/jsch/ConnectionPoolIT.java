@@ -0,0 +1,91 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConnectionPoolIT {
+
+    private static FakeDockerEngine engine;
+    private static EmbeddedSshServer sshServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        engine = new FakeDockerEngine(1024);
+        sshServer = new EmbeddedSshServer(engine.getPort());
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        engine.close();
+    }
+
+    @Test
+    void idleChannelIsReused() throws Exception {
+        try (JschDockerHttpClient client = builder().build()) {
+            final int before = sshServer.getChannelsOpened();
+            assertEquals(200, ping(client));
+            assertEquals(200, ping(client));
+            assertEquals(200, ping(client));
+
+            assertEquals(1, sshServer.getChannelsOpened() - before);
+            assertEquals(1, client.getIdleChannels());
+        }
+    }
+
+    @Test
+    void closedChannelIsNotHandedOutAgain() throws Exception {
+        // without retries, a request on a dead pooled channel would fail
+        try (JschDockerHttpClient client = builder().retryOnConnectionFailure(false).build()) {
+            assertEquals(200, ping(client));
+            final int before = sshServer.getChannelsOpened();
+
+            sshServer.closeChannels();
+            await().atMost(5, TimeUnit.SECONDS).until(() -> sshServer.getOpenChannels() == 0);
+
+            assertEquals(200, ping(client));
+            assertEquals(1, sshServer.getChannelsOpened() - before);
+        }
+    }
+
+    @Test
+    void noChannelIsKeptWithoutIdleConnections() throws Exception {
+        try (JschDockerHttpClient client = builder().maxIdleConnections(0).build()) {
+            final int before = sshServer.getChannelsOpened();
+            assertEquals(200, ping(client));
+            assertEquals(200, ping(client));
+
+            assertEquals(2, sshServer.getChannelsOpened() - before);
+            assertEquals(0, client.getIdleChannels());
+        }
+    }
+
+    private static JschDockerHttpClient.Builder builder() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(engine.getPort());
+    }
+
+    private static int ping(DockerHttpClient client) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path("/_ping").build());
+             InputStream body = response.getBody()) {
+            while (body.read() != -1) {
+                // drain, so that the connection is reused
+            }
+            return response.getStatusCode();
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import com.jcraft.jsch.UserInfo;
+import org.apache.sshd.client.future.OpenFuture;
+import org.apache.sshd.common.channel.Channel;
+import org.apache.sshd.common.channel.ChannelFactory;
+import org.apache.sshd.common.channel.ChannelListener;
+import org.apache.sshd.common.kex.KexProposalOption;
+import org.apache.sshd.common.session.SessionListener;
+import org.apache.sshd.common.session.helpers.AbstractSession;
+import org.apache.sshd.common.util.buffer.Buffer;
+import org.apache.sshd.common.util.buffer.ByteArrayBuffer;
+import org.apache.sshd.core.CoreModuleProperties;
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.channel.ChannelSession;
+import org.apache.sshd.server.command.Command;
+import org.apache.sshd.server.forward.AcceptAllForwardingFilter;
+import org.apache.sshd.server.forward.TcpForwardingFilter;
+import org.apache.sshd.server.forward.TcpipServerChannel;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * ssh server accepting any password and forwarding to any tcp port on localhost, for tests in tcp mode. Given the port
+ * of a {@link FakeDockerEngine}, it also serves the other modes by connecting {@code docker system dial-stdio} and
+ * direct-streamlocal channels to {@code /var/run/docker.sock} to that port.
+ * <p>
+ * Other commands are recorded and answered as scripted by {@link #reply(String, int, String, String)}, or with exit
+ * status 127 like an unknown command.
+ */
+class EmbeddedSshServer implements Closeable {
+
+    private static final String DIAL_STDIO = "docker system dial-stdio";
+
+    static final String USER = "test";
+    static final String PASSWORD = "test";
+
+    private final SshServer sshServer;
+    private final AtomicInteger sessionsCreated = new AtomicInteger();
+    private final AtomicInteger channelsOpened = new AtomicInteger();
+    private final Set<Channel> openChannels = ConcurrentHashMap.newKeySet();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final List<Reply> replies = new CopyOnWriteArrayList<>();
+
+    private static final class Reply {
+
+        private final String fragment;
+        private final int exitStatus;
+        private final String stdout;
+        private final String stderr;
+
+        Reply(String fragment, int exitStatus, String stdout, String stderr) {
+            this.fragment = fragment;
+            this.exitStatus = exitStatus;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+    }
+
+    EmbeddedSshServer() throws IOException {
+        this(-1);
+    }
+
+    /**
+     * @param enginePort tcp port on localhost standing in for the docker socket, or -1 for tcp mode only
+     */
+    EmbeddedSshServer(int enginePort) throws IOException {
+        sshServer = SshServer.setUpDefaultServer();
+        sshServer.setHost("127.0.0.1");
+        sshServer.setPort(0);
+        sshServer.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+        sshServer.setPasswordAuthenticator((username, password, session) -> true);
+        sshServer.setForwardingFilter(AcceptAllForwardingFilter.INSTANCE);
+        sshServer.addSessionListener(new SessionListener() {
+            @Override
+            public void sessionCreated(org.apache.sshd.common.session.Session session) {
+                sessionsCreated.incrementAndGet();
+            }
+        });
+        sshServer.addChannelListener(new ChannelListener() {
+            @Override
+            public void channelOpenSuccess(Channel channel) {
+                channelsOpened.incrementAndGet();
+                openChannels.add(channel);
+            }
+
+            @Override
+            public void channelClosed(Channel channel, Throwable reason) {
+                openChannels.remove(channel);
+            }
+        });
+        sshServer.setCommandFactory((channel, command) -> {
+            if (enginePort > 0 && DIAL_STDIO.equals(command.trim())) {
+                return new DialStdioCommand(enginePort);
+            }
+            commands.add(command.trim());
+            return scripted(command);
+        });
+        if (enginePort > 0) {
+            // the forwarded connections to the engine carry small requests, which must not wait for delayed acks
+            CoreModuleProperties.TCP_NODELAY.set(sshServer, true);
+            final List<ChannelFactory> channelFactories = new ArrayList<>(sshServer.getChannelFactories());
+            channelFactories.add(new StreamLocalFactory(enginePort));
+            sshServer.setChannelFactories(channelFactories);
+        }
+        sshServer.start();
+    }
+
+    int getPort() {
+        return sshServer.getPort();
+    }
+
+    /**
+     * @return negotiated server to client compression of each connected session
+     */
+    List<String> getSessionCompressions() {
+        return sshServer.getActiveSessions().stream()
+                .map(session -> session.getNegotiatedKexParameter(KexProposalOption.S2CCOMP))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return number of ssh handshakes so far
+     */
+    int getSessionsCreated() {
+        return sessionsCreated.get();
+    }
+
+    /**
+     * @return number of channels opened so far, of any type
+     */
+    int getChannelsOpened() {
+        return channelsOpened.get();
+    }
+
+    /**
+     * @return number of channels currently open
+     */
+    int getOpenChannels() {
+        return openChannels.size();
+    }
+
+    /**
+     * closes all channels, but keeps the sessions, like a daemon dropping idle connections
+     */
+    void closeChannels() {
+        for (Channel channel : openChannels) {
+            channel.close(false);
+        }
+    }
+
+    /**
+     * answers commands containing the fragment, replies added later take precedence
+     */
+    void reply(String fragment, int exitStatus, String stdout, String stderr) {
+        replies.add(0, new Reply(fragment, exitStatus, stdout, stderr));
+    }
+
+    /**
+     * @return commands received so far in exec channels, except dial-stdio
+     */
+    List<String> getCommands() {
+        return commands;
+    }
+
+    /**
+     * forgets the received commands and the replies
+     */
+    void resetCommands() {
+        commands.clear();
+        replies.clear();
+    }
+
+    private Command scripted(String command) {
+        for (Reply reply : replies) {
+            if (command.contains(reply.fragment)) {
+                return new ScriptedCommand(reply.exitStatus, reply.stdout, reply.stderr);
+            }
+        }
+        return new ScriptedCommand(127, "", command.trim() + ": command not found\n");
+    }
+
+    /**
+     * drops all connections, like an sshd restart
+     */
+    void disconnectAll() throws IOException {
+        for (AbstractSession session : sshServer.getActiveSessions()) {
+            session.close(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sshServer.stop(true);
+    }
+
+    /**
+     * @return connected session to the given port, which may belong to a proxy in front of the server
+     */
+    static Session connect(int port) throws JSchException {
+        final Session session = new JSch().getSession(USER, "127.0.0.1", port);
+        session.setPassword(PASSWORD);
+        session.setConfig("StrictHostKeyChecking", "no");
+        session.connect();
+        return session;
+    }
+
+    /**
+     * answers the password prompt of sessions created by the client itself
+     */
+    static UserInfo passwordUserInfo() {
+        return new UserInfo() {
+            @Override
+            public String getPassphrase() {
+                return null;
+            }
+
+            @Override
+            public String getPassword() {
+                return PASSWORD;
+            }
+
+            @Override
+            public boolean promptPassword(String message) {
+                return true;
+            }
+
+            @Override
+            public boolean promptPassphrase(String message) {
+                return false;
+            }
+
+            @Override
+            public boolean promptYesNo(String message) {
+                // accept the unknown host key
+                return true;
+            }
+
+            @Override
+            public void showMessage(String message) {
+            }
+        };
+    }
+
+    /**
+     * direct-streamlocal is not implemented by sshd, so the channel is opened as direct-tcpip to the engine instead
+     */
+    private static final class StreamLocalFactory implements ChannelFactory {
+
+        private final int enginePort;
+
+        StreamLocalFactory(int enginePort) {
+            this.enginePort = enginePort;
+        }
+
+        @Override
+        public String getName() {
+            return "direct-streamlocal@openssh.com";
+        }
+
+        @Override
+        public Channel createChannel(org.apache.sshd.common.session.Session session) {
+            return new TcpipServerChannel(TcpForwardingFilter.Type.Direct, null) {
+                @Override
+                protected OpenFuture doInit(Buffer buffer) {
+                    // socket path, reserved string and reserved uint32
+                    final String socketPath = buffer.getString();
+                    buffer.getString();
+                    buffer.getUInt();
+                    final Buffer direct = new ByteArrayBuffer();
+                    direct.putString("127.0.0.1");
+                    // nothing listens on port 0, so other sockets fail like missing ones
+                    direct.putUInt(JschDockerConfig.VAR_RUN_DOCKER_SOCK.equals(socketPath) ? enginePort : 0);
+                    direct.putString("127.0.0.1");
+                    direct.putUInt(0);
+                    return super.doInit(direct);
+                }
+            };
+        }
+    }
+
+    /**
+     * pipes the channel to the engine like {@code docker system dial-stdio}, exiting once the engine closed the
+     * connection
+     */
+    private static final class DialStdioCommand implements Command {
+
+        private final int enginePort;
+        private InputStream in;
+        private OutputStream out;
+        private ExitCallback exitCallback;
+        private Socket socket;
+
+        DialStdioCommand(int enginePort) {
+            this.enginePort = enginePort;
+        }
+
+        @Override
+        public void setInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+        }
+
+        @Override
+        public void setExitCallback(ExitCallback exitCallback) {
+            this.exitCallback = exitCallback;
+        }
+
+        @Override
+        public void start(ChannelSession channel, Environment env) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), enginePort);
+            socket.setTcpNoDelay(true);
+            daemon("dial-stdio-in", () -> {
+                try {
+                    copy(in, socket.getOutputStream());
+                    socket.shutdownOutput();
+                } catch (IOException e) {
+                    // closed
+                }
+            }).start();
+            daemon("dial-stdio-out", () -> {
+                int exitStatus = 0;
+                try {
+                    copy(socket.getInputStream(), out);
+                } catch (IOException e) {
+                    exitStatus = 1;
+                }
+                exitCallback.onExit(exitStatus);
+            }).start();
+        }
+
+        @Override
+        public void destroy(ChannelSession channel) throws IOException {
+            if (socket != null) {
+                socket.close();
+            }
+        }
+
+        private static void copy(InputStream from, OutputStream to) throws IOException {
+            final byte[] buffer = new byte[32 * 1024];
+            int read;
+            while ((read = from.read(buffer)) != -1) {
+                to.write(buffer, 0, read);
+                to.flush();
+            }
+        }
+
+        private static Thread daemon(String name, Runnable runnable) {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static final class ScriptedCommand implements Command {
+
+        private final int exitStatus;
+        private final String stdout;
+        private final String stderr;
+        private OutputStream out;
+        private OutputStream err;
+        private ExitCallback exitCallback;
+
+        ScriptedCommand(int exitStatus, String stdout, String stderr) {
+            this.exitStatus = exitStatus;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        @Override
+        public void setInputStream(InputStream in) {
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+            this.err = err;
+        }
+
+        @Override
+        public void setExitCallback(ExitCallback exitCallback) {
+            this.exitCallback = exitCallback;
+        }
+
+        @Override
+        public void start(ChannelSession channel, Environment env) throws IOException {
+            out.write(stdout.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            err.write(stderr.getBytes(StandardCharsets.UTF_8));
+            err.flush();
+            exitCallback.onExit(exitStatus);
+        }
+
+        @Override
+        public void destroy(ChannelSession channel) {
+        }
+    }
+}
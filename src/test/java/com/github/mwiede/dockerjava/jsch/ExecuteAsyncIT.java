@@ -0,0 +1,130 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecuteAsyncIT {
+
+    @TempDir
+    static Path userHome;
+
+    private static String originalUserHome;
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+    private static ExecutorService httpExecutor;
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+    private static final CountDownLatch blocked = new CountDownLatch(1);
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        // keep sessions created by the client away from the real known_hosts
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpExecutor = Executors.newCachedThreadPool();
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext("/slow", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("ok".getBytes());
+            }
+        });
+        httpServer.createContext("/blocked", exchange -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        blocked.countDown();
+        sshServer.close();
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+        System.setProperty("user.home", originalUserHome);
+    }
+
+    @Test
+    @Timeout(60)
+    void requestsInFlightAreLimited() throws Exception {
+        try (JschDockerHttpClient client = newClient().maxRequests(4).build()) {
+            final List<CompletableFuture<DockerHttpClient.Response>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(client.executeAsync(request("/slow")));
+            }
+            for (CompletableFuture<DockerHttpClient.Response> future : futures) {
+                try (DockerHttpClient.Response response = future.get()) {
+                    assertEquals(200, response.getStatusCode());
+                }
+            }
+        }
+        assertTrue(maxInFlight.get() <= 4, "max in flight: " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "max in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    @Timeout(60)
+    void cancellingTheFutureCancelsTheCall() throws Exception {
+        try (JschDockerHttpClient client = newClient().build()) {
+            final CompletableFuture<DockerHttpClient.Response> future = client.executeAsync(request("/blocked"));
+            TimeUnit.MILLISECONDS.sleep(200);
+            future.cancel(true);
+
+            final okhttp3.Dispatcher dispatcher = client.client.dispatcher();
+            await().atMost(5, TimeUnit.SECONDS).until(() -> dispatcher.runningCallsCount() == 0);
+        }
+    }
+
+    private static JschDockerHttpClient.Builder newClient() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort());
+    }
+
+    private static Request request(String path) {
+        return Request.builder().method(Request.Method.GET).path(path).build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * docker engine api on a tcp port of localhost, answering a few endpoints with canned responses:
+ * <ul>
+ * <li>{@code /_ping}</li>
+ * <li>{@code /containers/json} with a list of containers</li>
+ * <li>{@code /containers/{id}/logs} with a multiplexed stream of log lines</li>
+ * <li>{@code /images/{name}/get} with a tar of the image size</li>
+ * </ul>
+ * The latency delays every response before its headers, the bandwidth limits how fast bodies are written, so the
+ * daemon and the link to it can be simulated without a docker host. Everything else is answered with 404.
+ */
+class FakeDockerEngine implements Closeable {
+
+    static final int CONTAINERS = 20;
+    static final int LOG_LINES = 1000;
+
+    private static final int WRITE_CHUNK = 8192;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final byte[] containers;
+    private final byte[] logs;
+    private final byte[] image;
+    private volatile long latencyNanos;
+    private volatile long bytesPerSecond;
+
+    /**
+     * @param imageSize size of the tar returned for any image
+     */
+    FakeDockerEngine(int imageSize) throws IOException {
+        containers = containers();
+        logs = logs();
+        image = tar("layer.tar", imageSize);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "fake-docker-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // otherwise headers and body written separately wait for the delayed ack of the client
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return number of requests answered so far
+     */
+    int getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @param latency time the engine takes before answering a request
+     */
+    void setLatency(Duration latency) {
+        latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * @param bytesPerSecond limit for writing response bodies, or 0 for no limit
+     */
+    void setBandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    byte[] getImage() {
+        return image;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            // the api version prefix is optional
+            final String path = exchange.getRequestURI().getPath().replaceFirst("^/v[0-9.]+/", "/");
+            final String[] segments = path.split("/");
+            if (latencyNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            }
+            if (path.equals("/_ping")) {
+                respond(exchange, "text/plain", "OK".getBytes(StandardCharsets.UTF_8));
+            } else if (path.equals("/containers/json")) {
+                respond(exchange, "application/json", containers);
+            } else if (segments.length == 4 && segments[1].equals("containers") && segments[3].equals("logs")) {
+                respond(exchange, "application/vnd.docker.raw-stream", logs);
+            } else if (segments.length >= 4 && segments[1].equals("images") && segments[segments.length - 1]
+                    .equals("get")) {
+                respond(exchange, "application/x-tar", image);
+            } else {
+                respond(exchange, 404, "application/json",
+                        "{\"message\":\"page not found\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException,
+            InterruptedException {
+        respond(exchange, 200, contentType, body);
+    }
+
+    private void respond(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException,
+            InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Api-Version", "1.41");
+        exchange.sendResponseHeaders(status, body.length);
+        final long start = System.nanoTime();
+        final OutputStream out = exchange.getResponseBody();
+        for (int offset = 0; offset < body.length; offset += WRITE_CHUNK) {
+            final int length = Math.min(WRITE_CHUNK, body.length - offset);
+            out.write(body, offset, length);
+            final long limit = bytesPerSecond;
+            if (limit > 0) {
+                // sleep until the bytes written so far are due
+                final long due = start + TimeUnit.SECONDS.toNanos(offset + length) / limit;
+                final long ahead = due - System.nanoTime();
+                if (ahead > 0) {
+                    out.flush();
+                    TimeUnit.NANOSECONDS.sleep(ahead);
+                }
+            }
+        }
+        out.close();
+    }
+
+    private static byte[] containers() {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < CONTAINERS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            final String id = String.format("%064x", i + 1);
+            json.append("{\"Id\":\"").append(id).append("\",\"Names\":[\"/app-").append(i)
+                    .append("\"],\"Image\":\"alpine:3.19\",\"Command\":\"sleep 3600\",\"Created\":1700000000,")
+                    .append("\"State\":\"running\",\"Status\":\"Up 2 hours\",\"Ports\":[],\"Labels\":{}}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * stdout frames of the multiplexed stream, which has an 8 byte header with the stream type and the frame size
+     */
+    private static byte[] logs() {
+        final byte[][] frames = new byte[LOG_LINES][];
+        int size = 0;
+        for (int i = 0; i < LOG_LINES; i++) {
+            final byte[] line = ("2024-01-01T00:00:00.000000000Z request " + i + " served in 3ms\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            final byte[] frame = new byte[8 + line.length];
+            frame[0] = 1;
+            frame[4] = (byte) (line.length >>> 24);
+            frame[5] = (byte) (line.length >>> 16);
+            frame[6] = (byte) (line.length >>> 8);
+            frame[7] = (byte) line.length;
+            System.arraycopy(line, 0, frame, 8, line.length);
+            frames[i] = frame;
+            size += frame.length;
+        }
+        final byte[] logs = new byte[size];
+        int offset = 0;
+        for (byte[] frame : frames) {
+            System.arraycopy(frame, 0, logs, offset, frame.length);
+            offset += frame.length;
+        }
+        return logs;
+    }
+
+    /**
+     * @return ustar archive with a single file of the given size, padded to the record size like docker does
+     */
+    static byte[] tar(String name, int size) {
+        final int blocks = 1 + (size + 511) / 512 + 2;
+        final byte[] tar = new byte[(blocks * 512 + 10239) / 10240 * 10240];
+        put(tar, 0, name);
+        put(tar, 100, "0000644");
+        put(tar, 108, "0000000");
+        put(tar, 116, "0000000");
+        put(tar, 124, String.format("%011o", size));
+        put(tar, 136, String.format("%011o", 1700000000L));
+        Arrays.fill(tar, 148, 156, (byte) ' ');
+        tar[156] = '0';
+        put(tar, 257, "ustar");
+        put(tar, 263, "00");
+        int checksum = 0;
+        for (int i = 0; i < 512; i++) {
+            checksum += tar[i] & 0xff;
+        }
+        put(tar, 148, String.format("%06o", checksum));
+        tar[154] = 0;
+        for (int i = 0; i < size; i++) {
+            tar[512 + i] = (byte) i;
+        }
+        return tar;
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+}
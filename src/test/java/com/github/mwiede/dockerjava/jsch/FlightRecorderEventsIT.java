@@ -0,0 +1,117 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FlightRecorderEventsIT {
+
+    private static final String PREFIX = "com.github.mwiede.dockerjava.jsch.";
+
+    @TempDir
+    Path recordingDir;
+
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            final byte[] body = "OK".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+    }
+
+    @Test
+    void transportActivityIsRecorded() throws Exception {
+        // the events only exist in the multi-release jar, which failsafe puts on the class path
+        assumeTrue(Event.class.isAssignableFrom(RequestEvent.class), "java 11 classes of the jar are not in use");
+
+        final Path file = recordingDir.resolve("transport.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] { "SessionConnect", "ChannelOpen", "Request" }) {
+                recording.enable(PREFIX + name).withoutThreshold();
+            }
+            recording.start();
+            try (JschDockerHttpClient client = new JschDockerHttpClient.Builder()
+                    .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                    .userInfo(EmbeddedSshServer.passwordUserInfo())
+                    .useTcp(httpServer.getAddress().getPort())
+                    .build()) {
+                execute(client, "/v1.41/_ping");
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        final RecordedEvent session = single(events, "SessionConnect");
+        assertTrue(session.getBoolean("success"));
+        assertEquals(sshServer.getPort(), session.getInt("port"));
+        assertEquals(EmbeddedSshServer.USER, session.getString("user"));
+
+        final RecordedEvent channel = single(events, "ChannelOpen");
+        assertTrue(channel.getBoolean("success"));
+        assertEquals("TCP", channel.getString("mode"));
+        assertEquals(0, channel.getInt("retries"));
+
+        final RecordedEvent request = single(events, "Request");
+        assertEquals("GET", request.getString("method"));
+        assertEquals("/v1.41/_ping", request.getString("path"));
+        assertEquals(200, request.getInt("statusCode"));
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        final List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(PREFIX + name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+
+    private static void execute(DockerHttpClient client, String path) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path(path).build());
+             InputStream body = response.getBody()) {
+            while (body.read() != -1) {
+                // drain
+            }
+        }
+    }
+}
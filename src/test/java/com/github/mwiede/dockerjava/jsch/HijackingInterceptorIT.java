@@ -0,0 +1,210 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * hijacked requests against an engine, which answers attach with a raw stream echoing stdin until it ends, or only its
+ * first line for the container {@code head}
+ */
+class HijackingInterceptorIT {
+
+    private static ServerSocket engine;
+    private static EmbeddedSshServer sshServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        engine = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final Thread acceptor = new Thread(HijackingInterceptorIT::accept, "echo-engine");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        engine.close();
+    }
+
+    @Test
+    @Timeout(10)
+    void stdinIsPumpedIntoTheConnection() throws Exception {
+        try (JschDockerHttpClient client = builder().build();
+             DockerHttpClient.Response response = client.execute(attach(new ByteArrayInputStream(
+                     "hello".getBytes(StandardCharsets.UTF_8))))) {
+            assertEquals("hello", read(response.getBody()));
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void exhaustedExecutorRejectsFurtherHijacking() throws Exception {
+        final ExecutorService executor = HijackExecutors.newPlatformThreadPool(1);
+        try (JschDockerHttpClient client = builder().hijackExecutor(executor).build()) {
+            final PipedOutputStream terminal = new PipedOutputStream();
+            try (DockerHttpClient.Response first = client.execute(attach(new PipedInputStream(terminal)))) {
+                await().atMost(5, TimeUnit.SECONDS).until(() -> client.getActiveHijackPumps() == 1);
+
+                final UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                        () -> client.execute(attach(new PipedInputStream(new PipedOutputStream()))));
+                assertTrue(e.getCause().getMessage().startsWith("Too many hijacked streams"), e.getCause()::toString);
+
+                terminal.write('x');
+                terminal.close();
+                assertEquals("x", read(first.getBody()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void pumpFailureReachesTheReader() throws Exception {
+        final InputStream failingStdin = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("terminal gone");
+            }
+        };
+        try (JschDockerHttpClient client = builder().build();
+             DockerHttpClient.Response response = client.execute(attach(failingStdin))) {
+            await().atMost(5, TimeUnit.SECONDS).until(() -> client.getActiveHijackPumps() == 0);
+
+            final IOException e = assertThrows(IOException.class, () -> read(response.getBody()));
+            assertEquals("Failed to pump stdin", e.getMessage());
+            assertEquals("terminal gone", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    void outputIsDeliveredWhenTheRemoteEndClosesStdin() throws Exception {
+        // more input than the process reads, so the pump is still writing when the stream is closed
+        final InputStream endlessStdin = new InputStream() {
+            private final byte[] line = "first line\n".getBytes(StandardCharsets.UTF_8);
+            private int position;
+
+            @Override
+            public int read() {
+                return position < line.length ? line[position++] : 'x';
+            }
+        };
+        try (JschDockerHttpClient client = builder().build();
+             DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.POST)
+                     .path("/containers/head/attach?stream=1&stdin=1").hijackedInput(endlessStdin).build())) {
+            await().atMost(5, TimeUnit.SECONDS).until(() -> client.getActiveHijackPumps() == 0);
+
+            assertEquals("first line\n", read(response.getBody()));
+        }
+    }
+
+    private static JschDockerHttpClient.Builder builder() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(engine.getLocalPort());
+    }
+
+    private static Request attach(InputStream stdin) {
+        return Request.builder().method(Request.Method.POST).path("/containers/app/attach?stream=1&stdin=1")
+                .hijackedInput(stdin).build();
+    }
+
+    private static String read(InputStream body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void accept() {
+        while (!engine.isClosed()) {
+            try {
+                final Socket socket = engine.accept();
+                final Thread connection = new Thread(() -> echo(socket), "echo-engine-connection");
+                connection.setDaemon(true);
+                connection.start();
+            } catch (IOException e) {
+                // closed
+            }
+        }
+    }
+
+    /**
+     * answers the request with a raw stream like docker does for attach, which ends when stdin ends
+     */
+    private static void echo(Socket socket) {
+        try (Socket s = socket) {
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            // skip the request headers, the request has no body besides stdin
+            final StringBuilder requestLine = new StringBuilder();
+            boolean firstLine = true;
+            int matched = 0;
+            while (matched < 4) {
+                final int b = in.read();
+                if (b < 0) {
+                    return;
+                }
+                firstLine &= b != '\r';
+                if (firstLine) {
+                    requestLine.append((char) b);
+                }
+                matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+            out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/vnd.docker.raw-stream\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            if (requestLine.toString().contains("/containers/head/")) {
+                // like head -n 1, the stream ends while stdin is still being sent
+                int b;
+                while ((b = in.read()) != -1) {
+                    out.write(b);
+                    if (b == '\n') {
+                        break;
+                    }
+                }
+                out.flush();
+                return;
+            }
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JschDockerFleetIT {
+
+    @TempDir
+    static Path userHome;
+
+    private static String originalUserHome;
+    private static EmbeddedSshServer first;
+    private static EmbeddedSshServer second;
+    private static LatencyProxy slowLink;
+    private static HttpServer httpServer;
+    private static int unusedPort;
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        // clients are created by the fleet, keep them away from the real known_hosts
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.createContext("/", exchange -> {
+            // a slow request outlives its test, so it is not counted
+            final boolean slow = exchange.getRequestURI().getPath().equals("/slow");
+            if (!slow) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(slow ? 5000 : 100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (!slow) {
+                    inFlight.decrementAndGet();
+                }
+            }
+            final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        first = new EmbeddedSshServer();
+        second = new EmbeddedSshServer();
+        slowLink = new LatencyProxy(first.getPort(), Duration.ofMillis(150));
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            unusedPort = socket.getLocalPort();
+        }
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        slowLink.close();
+        first.close();
+        second.close();
+        httpServer.stop(0);
+        System.setProperty("user.home", originalUserHome);
+    }
+
+    @Test
+    @Timeout(60)
+    void resultsArriveAsHostsAnswer() {
+        final List<JschDockerFleet.HostResult> results = new CopyOnWriteArrayList<>();
+        try (JschDockerFleet fleet = newFleet().build()) {
+            fleet.execute(Arrays.asList(host(slowLink.getPort()), host(first.getPort()), host(second.getPort()),
+                    host(unusedPort)), ping(), results::add).join();
+        }
+
+        assertEquals(4, results.size());
+        // the slow host answers last
+        assertEquals(host(slowLink.getPort()), results.get(3).getHost());
+        for (JschDockerFleet.HostResult result : results) {
+            if (result.getHost().getPort() == unusedPort) {
+                assertFalse(result.isSuccessful());
+                assertNotNull(result.getFailure());
+            } else {
+                assertTrue(result.isSuccessful(), result.toString());
+                assertArrayEquals("ok".getBytes(StandardCharsets.UTF_8), result.getBody());
+            }
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void slowHostTimesOut() {
+        final Map<URI, JschDockerFleet.HostResult> results = new ConcurrentHashMap<>();
+        try (JschDockerFleet fleet = newFleet().hostTimeout(Duration.ofMillis(500)).build()) {
+            fleet.execute(Arrays.asList(host(slowLink.getPort()), host(first.getPort())), ping(),
+                    result -> results.put(result.getHost(), result)).join();
+
+            assertTrue(results.get(host(first.getPort())).isSuccessful());
+            final JschDockerFleet.HostResult slow = results.get(host(slowLink.getPort()));
+            assertTrue(slow.getFailure() instanceof TimeoutException, slow.toString());
+            assertTrue(slow.getElapsed().toMillis() < 2000, slow.toString());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void slowRequestIsCancelledAndTheClientIsKept() {
+        try (JschDockerFleet fleet = newFleet().hostTimeout(Duration.ofMillis(2000)).build()) {
+            final URI host = host(second.getPort());
+            final JschDockerFleet.HostResult warm = fleet.execute(host, ping()).join();
+            assertTrue(warm.isSuccessful(), warm.toString());
+            final int handshakes = second.getSessionsCreated();
+
+            final JschDockerFleet.HostResult slow = fleet.execute(host,
+                    Request.builder().method(Request.Method.GET).path("/slow").build()).join();
+            assertTrue(slow.getFailure() instanceof TimeoutException, slow.toString());
+            assertEquals(1, fleet.getConnectedHosts());
+
+            final JschDockerFleet.HostResult next = fleet.execute(host, ping()).join();
+            assertTrue(next.isSuccessful(), next.toString());
+            assertEquals(handshakes, second.getSessionsCreated());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrencyIsLimitedAndIdleClientsAreClosed() {
+        maxInFlight.set(0);
+        try (JschDockerFleet fleet = newFleet().maxConcurrency(1).idleTimeout(Duration.ofMillis(300)).build()) {
+            final List<JschDockerFleet.HostResult> results = new CopyOnWriteArrayList<>();
+            fleet.execute(Arrays.asList(host(first.getPort()), host(second.getPort())), ping(), results::add).join();
+            assertTrue(results.stream().allMatch(JschDockerFleet.HostResult::isSuccessful), results.toString());
+            assertEquals(1, maxInFlight.get());
+            assertEquals(2, fleet.getConnectedHosts());
+
+            await().atMost(5, TimeUnit.SECONDS).until(() -> fleet.getConnectedHosts() == 0);
+        }
+    }
+
+    private static JschDockerFleet.Builder newFleet() {
+        return new JschDockerFleet.Builder()
+                .clientBuilder(host -> new JschDockerHttpClient.Builder()
+                        .userInfo(EmbeddedSshServer.passwordUserInfo())
+                        .useTcp(httpServer.getAddress().getPort()));
+    }
+
+    private static URI host(int port) {
+        return URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + port);
+    }
+
+    private static Request ping() {
+        return Request.builder().method(Request.Method.GET).path("/_ping").build();
+    }
+}
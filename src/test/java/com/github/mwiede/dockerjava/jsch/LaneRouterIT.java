@@ -0,0 +1,145 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.jcraft.jsch.Session;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LaneRouterIT {
+
+    @TempDir
+    static Path userHome;
+
+    private static String originalUserHome;
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        // sessions of the bulk lane are created by the client, keep them away from the real known_hosts
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            final byte[] body = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+        System.setProperty("user.home", originalUserHome);
+    }
+
+    @Test
+    void bulkEndpointsAreRecognized() {
+        for (String path : Arrays.asList("/build?t=app", "/v1.41/build", "/images/create?fromImage=alpine",
+                "/v1.41/images/load", "/images/get?names=alpine", "/images/alpine/get",
+                "/images/registry.example.com/team/app/push?tag=1", "/containers/abc/archive?path=/tmp",
+                "/containers/abc/export", "/containers/abc/logs?follow=1", "/containers/abc/stats",
+                "/containers/abc/attach?stream=1", "/exec/abc/start", "/v1.43/events")) {
+            assertTrue(LaneRouter.isBulk(request("POST", path)), path);
+        }
+    }
+
+    @Test
+    void controlEndpointsAreRecognized() {
+        for (String path : Arrays.asList("/_ping", "/v1.41/version", "/containers/json?all=1",
+                "/containers/abc/json", "/containers/create?name=logs", "/containers/abc/start", "/images/json",
+                "/images/alpine/json", "/exec/abc/json", "/containers/abc/exec", "/networks/build")) {
+            assertFalse(LaneRouter.isBulk(request("POST", path)), path);
+        }
+        assertFalse(LaneRouter.isBulk(request("HEAD", "/containers/abc/archive?path=/tmp")));
+    }
+
+    @Test
+    void hijackedRequestsUseTheBulkLane() {
+        assertTrue(LaneRouter.isBulk(Request.builder().method(Request.Method.POST).path("/containers/abc/start")
+                .hijackedInput(new ByteArrayInputStream(new byte[0])).build()));
+    }
+
+    @Test
+    void bulkLaneHasItsOwnCompressedSession() throws Exception {
+        try (JschDockerHttpClient client = new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort())
+                .bulkLane()
+                .build()) {
+
+            assertEquals("/v1.41/containers/json", execute(client, "GET", "/v1.41/containers/json"));
+            assertEquals(Collections.singletonList("none"), sshServer.getSessionCompressions());
+
+            assertEquals("/v1.41/images/get", execute(client, "GET", "/v1.41/images/get"));
+            assertEquals(2, sshServer.getSessionCompressions().size());
+            assertTrue(sshServer.getSessionCompressions().contains("zlib@openssh.com"),
+                    sshServer.getSessionCompressions().toString());
+        }
+    }
+
+    @Test
+    void bulkLaneNeedsItsOwnSessions() throws Exception {
+        final Session session = EmbeddedSshServer.connect(sshServer.getPort());
+        try {
+            final JschDockerHttpClient.Builder builder = new JschDockerHttpClient.Builder()
+                    .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                    .sshSession(session)
+                    .useTcp(httpServer.getAddress().getPort())
+                    .bulkLane();
+
+            final IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+            assertTrue(e.getMessage().startsWith("bulkLane()"), e.getMessage());
+        } finally {
+            session.disconnect();
+            // the other tests count the sessions of the server
+            await().atMost(5, TimeUnit.SECONDS).until(() -> sshServer.getSessionCompressions().isEmpty());
+        }
+    }
+
+    private static String execute(DockerHttpClient client, String method, String path) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(request(method, path));
+             InputStream body = response.getBody()) {
+            final StringBuilder result = new StringBuilder();
+            int read;
+            while ((read = body.read()) != -1) {
+                result.append((char) read);
+            }
+            return result.toString();
+        }
+    }
+
+    private static Request request(String method, String path) {
+        return Request.builder().method(method).path(path).build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tcp proxy, which delays everything passing through by a fixed time in each direction, without limiting the bandwidth.
+ * Put in front of an ssh server it simulates a link with a round trip time of twice the delay.
+ */
+class LatencyProxy implements Closeable {
+
+    private static final byte[] EOF = new byte[0];
+
+    private final int targetPort;
+    private final long delayNanos;
+    private final ServerSocket serverSocket;
+
+    LatencyProxy(int targetPort, Duration oneWayDelay) throws IOException {
+        this.targetPort = targetPort;
+        this.delayNanos = oneWayDelay.toNanos();
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        daemon("latency-proxy-accept", this::accept).start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                final Socket client = serverSocket.accept();
+                final Socket target = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                client.setTcpNoDelay(true);
+                target.setTcpNoDelay(true);
+                forward(client, target);
+                forward(target, client);
+            }
+        } catch (IOException e) {
+            // closed
+        }
+    }
+
+    private void forward(Socket from, Socket to) {
+        final BlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+        daemon("latency-proxy-read", () -> {
+            final byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = from.getInputStream()) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    queue.add(new Chunk(System.nanoTime() + delayNanos, Arrays.copyOf(buffer, read)));
+                }
+            } catch (IOException e) {
+                // connection closed
+            }
+            queue.add(new Chunk(System.nanoTime() + delayNanos, EOF));
+        }).start();
+        daemon("latency-proxy-write", () -> {
+            try {
+                final OutputStream out = to.getOutputStream();
+                while (true) {
+                    final Chunk chunk = queue.take();
+                    final long wait = chunk.deliverAt - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (chunk.data == EOF) {
+                        to.shutdownOutput();
+                        return;
+                    }
+                    out.write(chunk.data);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // connection closed
+            }
+        }).start();
+    }
+
+    private static Thread daemon(String name, Runnable runnable) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class Chunk {
+
+        private final long deliverAt;
+        private final byte[] data;
+
+        Chunk(long deliverAt, byte[] data) {
+            this.deliverAt = deliverAt;
+            this.data = data;
+        }
+    }
+}
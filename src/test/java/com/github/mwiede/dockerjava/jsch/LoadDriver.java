@@ -0,0 +1,197 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.jcraft.jsch.JSchException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a number of requests from concurrent threads through a client and reports latency percentiles and throughput.
+ * {@link #main(String[])} runs the whole matrix of transport modes and concurrency levels against an
+ * {@link EmbeddedSshServer} in front of a {@link FakeDockerEngine}, so it needs no docker host, e.g.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.github.mwiede.dockerjava.jsch.LoadDriver \
+ *     -Dload.path=/v1.41/containers/json -Dload.requests=2000 -Dload.latency=5 -Dload.bandwidth=0
+ * </pre>
+ * with latency in milliseconds and bandwidth in bytes per second.
+ */
+final class LoadDriver {
+
+    static final TransportMode[] MODES = { TransportMode.DIAL_STDIO, TransportMode.UNIX_SOCKET, TransportMode.TCP };
+
+    static final class Result {
+
+        private final TransportMode mode;
+        private final int concurrency;
+        private final int requests;
+        private final int failures;
+        private final Duration p50;
+        private final Duration p99;
+        private final double throughput;
+
+        private Result(TransportMode mode, int concurrency, int requests, int failures, Duration p50, Duration p99,
+                double throughput) {
+            this.mode = mode;
+            this.concurrency = concurrency;
+            this.requests = requests;
+            this.failures = failures;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.throughput = throughput;
+        }
+
+        int getFailures() {
+            return failures;
+        }
+
+        Duration getP50() {
+            return p50;
+        }
+
+        Duration getP99() {
+            return p99;
+        }
+
+        /**
+         * @return successful requests per second
+         */
+        double getThroughput() {
+            return throughput;
+        }
+
+        static String header() {
+            return String.format(Locale.ROOT, "%-12s %11s %8s %8s %10s %10s %12s", "mode", "concurrency", "requests",
+                    "failures", "p50 ms", "p99 ms", "requests/s");
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-12s %11d %8d %8d %10.2f %10.2f %12.1f", mode, concurrency, requests,
+                    failures, p50.toNanos() / 1e6, p99.toNanos() / 1e6, throughput);
+        }
+    }
+
+    private LoadDriver() {
+    }
+
+    /**
+     * @return client for the given mode, connecting to the ssh server as the test user
+     */
+    static DockerHttpClient client(TransportMode mode, int sshPort, int enginePort) throws IOException,
+            JSchException {
+        final JschDockerHttpClient.Builder builder = new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshPort))
+                .userInfo(EmbeddedSshServer.passwordUserInfo());
+        switch (mode) {
+            case UNIX_SOCKET:
+                builder.useSocket();
+                break;
+            case TCP:
+                builder.useTcp(enginePort);
+                break;
+            case DIAL_STDIO:
+                break;
+            default:
+                throw new IllegalArgumentException(mode + " needs a docker host");
+        }
+        return builder.build();
+    }
+
+    /**
+     * sends the request {@code requests} times from {@code concurrency} threads, reading each response body to its end
+     */
+    static Result run(DockerHttpClient client, TransportMode mode, int concurrency, int requests, Request request)
+            throws InterruptedException {
+        final long[] latencies = new long[requests];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final List<Future<?>> workers = new ArrayList<>();
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    final byte[] buffer = new byte[32 * 1024];
+                    int index;
+                    while ((index = next.getAndIncrement()) < requests) {
+                        final long requestStart = System.nanoTime();
+                        try (DockerHttpClient.Response response = client.execute(request);
+                             InputStream body = response.getBody()) {
+                            while (body.read(buffer) != -1) {
+                                // drain, so that the connection is reused
+                            }
+                            if (response.getStatusCode() >= 400) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - requestStart;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(mode, concurrency, requests, failures.get(), Duration.ofNanos(percentile(latencies, 50)),
+                Duration.ofNanos(percentile(latencies, 99)),
+                (requests - failures.get()) / (elapsed / (double) TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * nearest rank of the sorted values
+     */
+    static long percentile(long[] sorted, int percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public static void main(String[] args) throws Exception {
+        final String path = System.getProperty("load.path", "/v1.41/containers/json");
+        final int requests = Integer.getInteger("load.requests", 1000);
+        final int[] concurrencies = Arrays.stream(System.getProperty("load.concurrency", "1,4,16").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        final Request request = Request.builder().method(Request.Method.GET).path(path).build();
+
+        try (FakeDockerEngine engine = new FakeDockerEngine(Integer.getInteger("load.imageSize", 8 * 1024 * 1024));
+             EmbeddedSshServer sshServer = new EmbeddedSshServer(engine.getPort())) {
+            engine.setLatency(Duration.ofMillis(Long.getLong("load.latency", 0L)));
+            engine.setBandwidth(Long.getLong("load.bandwidth", 0L));
+
+            System.out.println("GET " + path + ", " + requests + " requests per run");
+            System.out.println(Result.header());
+            for (TransportMode mode : MODES) {
+                for (int concurrency : concurrencies) {
+                    try (DockerHttpClient client = client(mode, sshServer.getPort(), engine.getPort())) {
+                        // warm up sessions, channels and the jit
+                        run(client, mode, concurrency, Math.max(concurrency, requests / 10), request);
+                        System.out.println(run(client, mode, concurrency, requests, request));
+                    }
+                }
+            }
+        }
+    }
+}
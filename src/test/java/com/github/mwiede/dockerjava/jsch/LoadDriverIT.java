@@ -0,0 +1,100 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadDriverIT {
+
+    private static FakeDockerEngine engine;
+    private static EmbeddedSshServer sshServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        engine = new FakeDockerEngine(1024 * 1024);
+        sshServer = new EmbeddedSshServer(engine.getPort());
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        engine.close();
+    }
+
+    @AfterEach
+    void resetEngine() {
+        engine.setLatency(Duration.ZERO);
+        engine.setBandwidth(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = TransportMode.class, names = { "DIAL_STDIO", "UNIX_SOCKET", "TCP" })
+    void everyModeReachesTheEngine(TransportMode mode) throws Exception {
+        try (DockerHttpClient client = LoadDriver.client(mode, sshServer.getPort(), engine.getPort())) {
+            assertArrayEquals(engine.getImage(), get(client, "/v1.41/images/alpine:3.19/get"));
+
+            final LoadDriver.Result result = LoadDriver.run(client, mode, 4, 40, Request.builder()
+                    .method(Request.Method.GET).path("/v1.41/containers/json").build());
+            assertEquals(0, result.getFailures(), result.toString());
+            assertTrue(result.getP99().compareTo(result.getP50()) >= 0, result.toString());
+            assertTrue(result.getThroughput() > 0, result.toString());
+        }
+    }
+
+    @Test
+    void latencyAndBandwidthAreInjected() throws Exception {
+        engine.setLatency(Duration.ofMillis(50));
+        engine.setBandwidth(4 * 1024 * 1024);
+        try (DockerHttpClient client = LoadDriver.client(TransportMode.TCP, sshServer.getPort(), engine.getPort())) {
+            final LoadDriver.Result result = LoadDriver.run(client, TransportMode.TCP, 2, 6, Request.builder()
+                    .method(Request.Method.GET).path("/_ping").build());
+            assertEquals(0, result.getFailures());
+            assertTrue(result.getP50().toMillis() >= 50, result.toString());
+
+            // 1 MiB at 4 MiB/s
+            final long start = System.nanoTime();
+            get(client, "/images/alpine/get");
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 250);
+        }
+    }
+
+    @Test
+    void percentilesUseTheNearestRank() {
+        final long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, LoadDriver.percentile(sorted, 50));
+        assertEquals(99, LoadDriver.percentile(sorted, 99));
+        assertEquals(7, LoadDriver.percentile(new long[] { 7 }, 99));
+    }
+
+    private static byte[] get(DockerHttpClient client, String path) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path(path).build());
+             InputStream body = response.getBody()) {
+            assertEquals(200, response.getStatusCode());
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RemoteCommandExecutorIT {
+
+    private static EmbeddedSshServer sshServer;
+
+    private Session session;
+    private RemoteCommandExecutor executor;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        sshServer.close();
+    }
+
+    @BeforeEach
+    void connect() throws JSchException {
+        sshServer.resetCommands();
+        session = EmbeddedSshServer.connect(sshServer.getPort());
+        executor = new RemoteCommandExecutor(session, null, TransportMetrics.NOOP);
+    }
+
+    @AfterEach
+    void disconnect() {
+        session.disconnect();
+    }
+
+    @Test
+    void stdoutIsReturned() throws Exception {
+        sshServer.reply("docker version", 0, "24.0.7\n", "");
+
+        assertEquals("24.0.7\n", executor.execute(" docker version --format {{.Server.Version}}"));
+        assertEquals("docker version --format {{.Server.Version}}", sshServer.getCommands().get(0));
+    }
+
+    @Test
+    void exitStatusAndStderrAreReported() throws Exception {
+        sshServer.reply("docker rm", 1, "", "Error response from daemon: No such container: 4f9a\n");
+
+        final RemoteCommandExecutor.CommandResult result = executor.executeAsync(" docker rm -f 4f9a")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getExitStatus());
+        assertEquals("", result.getStdout());
+        assertEquals("Error response from daemon: No such container: 4f9a\n", result.getStderr());
+        final RuntimeException e = assertThrows(RuntimeException.class, () -> executor.execute(" docker rm -f 4f9a"));
+        assertTrue(e.getMessage().startsWith("command ended in exit-status:1"), e.getMessage());
+    }
+
+    @Test
+    void unknownCommandEndsWith127() throws Exception {
+        final RemoteCommandExecutor.CommandResult result = executor.executeAsync(" dockerd --version")
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(127, result.getExitStatus());
+        assertEquals("dockerd --version: command not found\n", result.getStderr());
+    }
+
+    @Test
+    void linesArePassedToTheCallbacks() throws Exception {
+        sshServer.reply("docker pull", 0, "3.19: Pulling from library/alpine\nDigest: sha256:c5b1\n",
+                "warning: no tag");
+        final List<String> stdout = new CopyOnWriteArrayList<>();
+        final List<String> stderr = new CopyOnWriteArrayList<>();
+
+        executor.executeAsync(" docker pull alpine:3.19", stdout::add, stderr::add).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("3.19: Pulling from library/alpine", "Digest: sha256:c5b1"), stdout);
+        // the last line has no line break
+        assertEquals(Arrays.asList("warning: no tag"), stderr);
+    }
+
+    @Test
+    void channelFailingToConnectCompletesExceptionally() throws Exception {
+        final Session failingSession = mock(Session.class);
+        final ChannelExec channel = mock(ChannelExec.class);
+        when(failingSession.openChannel("exec")).thenReturn(channel);
+        final ArgumentCaptor<OutputStream> stderr = ArgumentCaptor.forClass(OutputStream.class);
+        final JSchException refused = new JSchException("channel is not opened.");
+        // like jsch, which disconnects the channel and thereby closes its streams, before connect() throws
+        doAnswer(invocation -> {
+            verify(channel).setExtOutputStream(stderr.capture());
+            stderr.getValue().close();
+            throw refused;
+        }).when(channel).connect();
+        when(channel.getExitStatus()).thenReturn(-1);
+
+        final CompletableFuture<RemoteCommandExecutor.CommandResult> result = new RemoteCommandExecutor(
+                failingSession, null, TransportMetrics.NOOP).executeAsync(" docker ps");
+
+        final ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(JSchException.class, e.getCause());
+        assertEquals(refused, e.getCause());
+    }
+
+    @Test
+    void channelFailingToOpenCompletesExceptionally() throws Exception {
+        final Session failingSession = mock(Session.class);
+        when(failingSession.openChannel("exec")).thenThrow(new JSchException("session is down"));
+
+        final JSchException e = assertThrows(JSchException.class,
+                () -> new RemoteCommandExecutor(failingSession, null, TransportMetrics.NOOP).execute(" docker ps"));
+        assertEquals("session is down", e.getMessage());
+    }
+}
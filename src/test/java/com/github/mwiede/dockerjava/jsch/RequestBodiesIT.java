@@ -0,0 +1,111 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestBodiesIT {
+
+    private final byte[] data = new byte[300 * 1024 + 7];
+
+    RequestBodiesIT() {
+        new Random(42).nextBytes(data);
+    }
+
+    @Test
+    void byteArrayHasContentLength() throws IOException {
+        final RequestBody body = RequestBodies.of(request().bodyBytes(data).build());
+
+        assertEquals(data.length, body.contentLength());
+        assertArrayEquals(data, write(body));
+    }
+
+    @Test
+    void byteArrayStreamHasContentLength() throws IOException {
+        final RequestBody body = RequestBodies.of(request().body(new ByteArrayInputStream(data)).build());
+
+        assertEquals(data.length, body.contentLength());
+        assertArrayEquals(data, write(body));
+    }
+
+    @Test
+    void fileIsSentFromItsCurrentPosition(@TempDir Path tempDir) throws IOException {
+        final Path file = Files.write(tempDir.resolve("context.tar"), data);
+        try (FileInputStream in = new FileInputStream(file.toFile())) {
+            assertEquals(7, in.skip(7));
+            final RequestBody body = RequestBodies.of(request().body(in).build());
+
+            final byte[] expected = Arrays.copyOfRange(data, 7, data.length);
+            assertEquals(expected.length, body.contentLength());
+            assertArrayEquals(expected, write(body));
+            // positional reads, so a retry sends the same again
+            assertArrayEquals(expected, write(body));
+            assertFalse(body.isOneShot());
+        }
+    }
+
+    @Test
+    void streamIsChunkedWithoutHint() throws IOException {
+        final RequestBody body = RequestBodies.of(request()
+                .body(new BufferedInputStream(new ByteArrayInputStream(data))).build());
+
+        assertEquals(-1, body.contentLength());
+        assertArrayEquals(data, write(body));
+    }
+
+    @Test
+    void contentLengthHeaderIsUsedAsHint() throws IOException {
+        final RequestBody body = RequestBodies.of(request()
+                .body(new BufferedInputStream(new ByteArrayInputStream(data)))
+                .headers(Collections.singletonMap("content-length", String.valueOf(data.length)))
+                .build());
+
+        assertEquals(data.length, body.contentLength());
+        assertArrayEquals(data, write(body));
+    }
+
+    @Test
+    void streamShorterThanHintFails() {
+        final RequestBody body = RequestBodies.of(request()
+                .body(new BufferedInputStream(new ByteArrayInputStream(data)))
+                .headers(Collections.singletonMap("Content-Length", String.valueOf(data.length + 1)))
+                .build());
+
+        assertThrows(EOFException.class, () -> write(body));
+    }
+
+    @Test
+    void emptyPostHasBody() throws IOException {
+        assertEquals(0, RequestBodies.of(request().build()).contentLength());
+        assertNull(RequestBodies.of(request().method(Request.Method.GET).build()));
+    }
+
+    private static Request.Builder request() {
+        return Request.builder().method(Request.Method.POST).path("/build");
+    }
+
+    private static byte[] write(RequestBody body) throws IOException {
+        final Buffer sink = new Buffer();
+        body.writeTo(sink);
+        return sink.readByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTimelineIT {
+
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            try {
+                // the daemon thinking
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final byte[] body = new byte[64 * 1024];
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+    }
+
+    @Test
+    void timeIsBrokenDownIntoPhases() throws Exception {
+        final List<RequestTimeline> timelines = new CopyOnWriteArrayList<>();
+        try (JschDockerHttpClient client = new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort())
+                .requestTimeline(timelines::add)
+                .slowRequestThreshold(Duration.ofMillis(100))
+                .build()) {
+
+            execute(client, "/v1.41/containers/abc/json");
+            execute(client, "/v1.41/containers/abc/json");
+        }
+
+        assertEquals(2, timelines.size());
+        final RequestTimeline first = timelines.get(0);
+        assertEquals("GET", first.getMethod());
+        assertEquals("/v1.41/containers/abc/json", first.getPath());
+        assertEquals(200, first.getStatusCode());
+        assertNull(first.getFailure());
+        assertEquals(TransportMode.TCP, first.getMode());
+        assertFalse(first.isWarmChannel());
+        assertNotNull(first.getPhase(RequestTimeline.Phase.CONNECT));
+        assertNotNull(first.getPhase(RequestTimeline.Phase.SESSION));
+        assertNotNull(first.getPhase(RequestTimeline.Phase.CHANNEL_OPEN));
+        assertNull(first.getPhase(RequestTimeline.Phase.SOCAT));
+        assertTrue(first.getPhase(RequestTimeline.Phase.TIME_TO_FIRST_BYTE).toMillis() >= 200, first.toString());
+        assertNotNull(first.getPhase(RequestTimeline.Phase.BODY));
+        assertTrue(first.getTotal().compareTo(first.getPhase(RequestTimeline.Phase.TIME_TO_FIRST_BYTE)) >= 0);
+        assertTrue(first.toString().contains("channel_open"), first.toString());
+
+        // the pooled connection is reused
+        final RequestTimeline second = timelines.get(1);
+        assertNull(second.getPhase(RequestTimeline.Phase.CONNECT), second.toString());
+        assertNull(second.getMode());
+        assertNotNull(second.getPhase(RequestTimeline.Phase.REQUEST));
+    }
+
+    private static void execute(DockerHttpClient client, String path) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path(path).build());
+             InputStream body = response.getBody()) {
+            final byte[] buffer = new byte[8192];
+            while (body.read(buffer) != -1) {
+                // drain, so that the connection is reused
+            }
+        }
+    }
+}
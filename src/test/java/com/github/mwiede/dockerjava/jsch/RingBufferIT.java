@@ -0,0 +1,126 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RingBufferIT.class);
+
+    private static final int MB = 1024 * 1024;
+
+    @Test
+    @Timeout(30)
+    void transfersDataBetweenThreads() throws Exception {
+        // odd sizes, so that reads and writes wrap around the end of the buffer at different positions
+        final RingBuffer ringBuffer = new RingBuffer(4093);
+        final byte[] data = new byte[16 * MB];
+        new Random(42).nextBytes(data);
+
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try (OutputStream out = ringBuffer.getOutputStream()) {
+                final Random chunks = new Random(7);
+                int off = 0;
+                while (off < data.length) {
+                    final int len = Math.min(data.length - off, 1 + chunks.nextInt(10_000));
+                    out.write(data, off, len);
+                    off += len;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        final long start = System.nanoTime();
+        final InputStream in = ringBuffer.getInputStream();
+        final byte[] buffer = new byte[3001];
+        long received = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            received += read;
+        }
+        LOG.info("transferred 16 MB in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        writer.get();
+
+        assertEquals(data.length, received);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), digest.digest());
+    }
+
+    @Test
+    @Timeout(10)
+    void readerIsWokenUpRightAway() throws Exception {
+        final RingBuffer ringBuffer = new RingBuffer(1024);
+        final CompletableFuture<Long> wokenUp = CompletableFuture.supplyAsync(() -> {
+            try {
+                final int read = ringBuffer.getInputStream().read();
+                assertEquals(1, read);
+                return System.nanoTime();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        final long written = System.nanoTime();
+        ringBuffer.getOutputStream().write(1);
+
+        assertTrue(wokenUp.get() - written < TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    @Timeout(10)
+    void readTimesOut() {
+        final RingBuffer ringBuffer = new RingBuffer(1024);
+        ringBuffer.setTimeout(50);
+
+        assertThrows(SocketTimeoutException.class, () -> ringBuffer.getInputStream().read());
+    }
+
+    @Test
+    @Timeout(10)
+    void remainingDataIsReadAfterClose() throws IOException {
+        final RingBuffer ringBuffer = new RingBuffer(1024);
+        ringBuffer.getOutputStream().write(new byte[]{1, 2, 3});
+        ringBuffer.getOutputStream().close();
+
+        final byte[] buffer = new byte[10];
+        assertEquals(3, ringBuffer.getInputStream().read(buffer));
+        assertEquals(-1, ringBuffer.getInputStream().read(buffer));
+    }
+
+    @Test
+    @Timeout(10)
+    void closingTheReaderReleasesABlockedWriter() throws Exception {
+        final RingBuffer ringBuffer = new RingBuffer(16);
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                ringBuffer.getOutputStream().write(new byte[64]);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(100);
+        ringBuffer.getInputStream().close();
+
+        final Exception e = assertThrows(Exception.class, writer::get);
+        assertTrue(e.getCause().getCause() instanceof IOException);
+    }
+}
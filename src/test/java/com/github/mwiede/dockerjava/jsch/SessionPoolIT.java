@@ -0,0 +1,132 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionPoolIT {
+
+    private static FakeDockerEngine engine;
+    private static EmbeddedSshServer sshServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        engine = new FakeDockerEngine(1024);
+        sshServer = new EmbeddedSshServer(engine.getPort());
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        engine.close();
+    }
+
+    @AfterEach
+    void resetLatency() {
+        engine.setLatency(Duration.ZERO);
+    }
+
+    @Test
+    void concurrentRequestsAreSpreadOverSessions() throws Exception {
+        // keeps the first request busy, while the second one acquires a session
+        engine.setLatency(Duration.ofMillis(300));
+        final int before = sshServer.getSessionsCreated();
+        try (JschDockerHttpClient client = builder().sessionPoolSize(2).build()) {
+            assertEquals(1, client.getOpenSessions());
+
+            pingConcurrently(client, 2);
+
+            assertEquals(2, client.getOpenSessions());
+            assertEquals(2, sshServer.getSessionsCreated() - before);
+        }
+    }
+
+    @Test
+    void fullPoolSharesItsSessions() throws Exception {
+        engine.setLatency(Duration.ofMillis(300));
+        final int before = sshServer.getSessionsCreated();
+        try (JschDockerHttpClient client = builder().sessionPoolSize(2).build()) {
+            pingConcurrently(client, 6);
+
+            assertEquals(2, client.getOpenSessions());
+            assertEquals(2, sshServer.getSessionsCreated() - before);
+        }
+    }
+
+    @Test
+    void externalSessionIsNotDisconnected() throws Exception {
+        final Session session = EmbeddedSshServer.connect(sshServer.getPort());
+        try {
+            final int before = sshServer.getSessionsCreated();
+            try (JschDockerHttpClient client = builder().sshSession(session).build()) {
+                assertEquals(200, ping(client));
+            }
+            assertEquals(0, sshServer.getSessionsCreated() - before);
+            assertTrue(session.isConnected());
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void externalSessionCanNotBePooled() throws Exception {
+        final Session session = EmbeddedSshServer.connect(sshServer.getPort());
+        try {
+            final JschDockerHttpClient.Builder builder = builder().sshSession(session).sessionPoolSize(2);
+            assertThrows(IllegalStateException.class, builder::build);
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    private static JschDockerHttpClient.Builder builder() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(engine.getPort());
+    }
+
+    private static void pingConcurrently(DockerHttpClient client, int requests) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            final List<Future<Integer>> statusCodes = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statusCodes.add(executor.submit(() -> ping(client)));
+            }
+            for (Future<Integer> statusCode : statusCodes) {
+                assertEquals(200, statusCode.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int ping(DockerHttpClient client) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path("/_ping").build());
+             InputStream body = response.getBody()) {
+            while (body.read() != -1) {
+                // drain
+            }
+            return response.getStatusCode();
+        }
+    }
+}
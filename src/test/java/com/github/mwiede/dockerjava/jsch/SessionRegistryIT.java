@@ -0,0 +1,167 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.jcraft.jsch.Session;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRegistryIT {
+
+    @TempDir
+    static Path userHome;
+
+    private static String originalUserHome;
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        // shared sessions are created by the client, keep them away from the real known_hosts
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("ok".getBytes());
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+        System.setProperty("user.home", originalUserHome);
+    }
+
+    @Test
+    void clientsToTheSameHostShareOneSession() throws Exception {
+        final int handshakes = sshServer.getSessionsCreated();
+        final JschDockerHttpClient first = newClient().build();
+        try (JschDockerHttpClient second = newClient().build()) {
+            try {
+                assertEquals(200, execute(first));
+                assertEquals(200, execute(second));
+                assertEquals(handshakes + 1, sshServer.getSessionsCreated());
+            } finally {
+                first.close();
+            }
+            assertEquals(200, execute(second));
+        }
+        await().atMost(5, TimeUnit.SECONDS).until(() -> SessionRegistry.shared().size() == 0);
+    }
+
+    @Test
+    void idleSessionIsDisconnectedAfterTimeout() throws Exception {
+        final SessionRegistry registry = new SessionRegistry(SessionRegistry.DEFAULT_MAX_SESSIONS);
+        final SessionRegistry.Key key = key(null);
+        final Session session = registry.acquire(key, this::connect);
+        assertSame(session, registry.acquire(key, this::connect));
+
+        registry.release(session, Duration.ofMillis(100));
+        registry.release(session, Duration.ofMillis(100));
+        assertTrue(session.isConnected());
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !session.isConnected());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void leastRecentlyUsedIdleSessionIsEvicted() throws Exception {
+        final SessionRegistry registry = new SessionRegistry(2);
+        final Session first = registry.acquire(key("first"), this::connect);
+        final Session second = registry.acquire(key("second"), this::connect);
+        registry.release(first, Duration.ofMinutes(1));
+        registry.release(second, Duration.ofMinutes(1));
+
+        final Session third = registry.acquire(key("third"), this::connect);
+        assertFalse(first.isConnected());
+        assertTrue(second.isConnected());
+        assertEquals(2, registry.size());
+
+        // sessions in use are kept, even beyond the limit
+        final Session again = registry.acquire(key("second"), this::connect);
+        assertSame(second, again);
+        final Session fourth = registry.acquire(key("fourth"), this::connect);
+        assertNotSame(third, fourth);
+        assertEquals(3, registry.size());
+
+        for (Session session : new Session[] { third, again, fourth }) {
+            registry.release(session, Duration.ZERO);
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void largestRequestedLimitApplies() {
+        final SessionRegistry registry = new SessionRegistry(SessionRegistry.DEFAULT_MAX_SESSIONS);
+        registry.requestMaxSessions(2);
+        registry.requestMaxSessions(5);
+        registry.requestMaxSessions(2);
+        assertEquals(5, registry.getMaxSessions());
+
+        registry.withdrawMaxSessions(5);
+        assertEquals(2, registry.getMaxSessions());
+        registry.withdrawMaxSessions(2);
+        assertEquals(2, registry.getMaxSessions());
+        registry.withdrawMaxSessions(2);
+        assertEquals(SessionRegistry.DEFAULT_MAX_SESSIONS, registry.getMaxSessions());
+    }
+
+    @Test
+    void limitOfAClientIsWithdrawnWhenItIsClosed() throws Exception {
+        try (JschDockerHttpClient client = newClient().maxSharedSessions(1000).build()) {
+            assertEquals(200, execute(client));
+            assertEquals(1000, SessionRegistry.shared().getMaxSessions());
+        }
+        assertEquals(SessionRegistry.DEFAULT_MAX_SESSIONS, SessionRegistry.shared().getMaxSessions());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> SessionRegistry.shared().size() == 0);
+    }
+
+    private Session connect() throws com.jcraft.jsch.JSchException {
+        return EmbeddedSshServer.connect(sshServer.getPort());
+    }
+
+    private static SessionRegistry.Key key(Object identity) {
+        return new SessionRegistry.Key(EmbeddedSshServer.USER, "127.0.0.1", sshServer.getPort(), identity);
+    }
+
+    private static JschDockerHttpClient.Builder newClient() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort())
+                .shareSessions(Duration.ZERO);
+    }
+
+    private static int execute(DockerHttpClient client) {
+        try (DockerHttpClient.Response response = client.execute(
+                Request.builder().method(Request.Method.GET).path("/_ping").build())) {
+            return response.getStatusCode();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionSupervisorIT {
+
+    @TempDir
+    static Path userHome;
+
+    private static String originalUserHome;
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        // replacement sessions are created by the client, keep them away from the real known_hosts
+        originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", userHome.toString());
+
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 2);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("ok".getBytes());
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+        System.setProperty("user.home", originalUserHome);
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentRequestsRecoverWithASingleHandshake() throws Exception {
+        try (JschDockerHttpClient client = newClient().build()) {
+            assertEquals(200, execute(client));
+
+            final int handshakes = sshServer.getSessionsCreated();
+            sshServer.disconnectAll();
+
+            final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> execute(client)));
+            }
+            for (CompletableFuture<Integer> future : futures) {
+                assertEquals(200, (int) future.get());
+            }
+            assertEquals(handshakes + 1, sshServer.getSessionsCreated());
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    void lostSessionIsReplacedInTheBackground() throws Exception {
+        try (JschDockerHttpClient client = newClient().serverAliveInterval(Duration.ofMillis(100)).build()) {
+            assertEquals(200, execute(client));
+
+            final int handshakes = sshServer.getSessionsCreated();
+            sshServer.disconnectAll();
+
+            await().atMost(10, TimeUnit.SECONDS).until(() -> sshServer.getSessionsCreated() == handshakes + 1);
+            assertEquals(200, execute(client));
+            assertEquals(handshakes + 1, sshServer.getSessionsCreated());
+        }
+    }
+
+    @Test
+    void onlyIdempotentRequestsAreRetried() {
+        final IOException reset = new IOException("channel is broken");
+        assertTrue(IdempotentRetryInterceptor.isRetryable(okRequest("GET", null, null), reset));
+        assertTrue(IdempotentRetryInterceptor.isRetryable(okRequest("DELETE", null, null), reset));
+        assertFalse(IdempotentRetryInterceptor.isRetryable(okRequest("GET", null, null), new SocketTimeoutException()));
+        assertFalse(IdempotentRetryInterceptor.isRetryable(
+                okRequest("POST", RequestBody.create(MediaType.get("application/json"), "{}"), null), reset));
+        assertFalse(IdempotentRetryInterceptor.isRetryable(
+                okRequest("PUT", RequestBodies.of(Request.builder().method(Request.Method.PUT).path("/archive")
+                        .body(new ByteArrayInputStream(new byte[10]) {
+                        }).build()), null), reset));
+        assertFalse(IdempotentRetryInterceptor.isRetryable(okRequest("GET", null,
+                Request.builder().method(Request.Method.GET).path("/attach")
+                        .hijackedInput(new ByteArrayInputStream(new byte[0])).build()), reset));
+    }
+
+    private static JschDockerHttpClient.Builder newClient() {
+        return new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort())
+                .reconnectBackoff(Duration.ofMillis(100), Duration.ofSeconds(1));
+    }
+
+    private static int execute(DockerHttpClient client) {
+        try (DockerHttpClient.Response response = client.execute(
+                Request.builder().method(Request.Method.GET).path("/_ping").build())) {
+            return response.getStatusCode();
+        }
+    }
+
+    private static okhttp3.Request okRequest(String method, RequestBody body, Request original) {
+        return new okhttp3.Request.Builder().url("http://127.0.0.1/").method(method, body)
+                .tag(Request.class, original).build();
+    }
+}
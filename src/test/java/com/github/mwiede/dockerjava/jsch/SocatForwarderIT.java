@@ -0,0 +1,131 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.api.model.Container;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SocatForwarderIT {
+
+    private static final String CONTAINER_ID = "4f9a1c2b3d5e";
+    private static final String RELEASE = "docker exec " + CONTAINER_ID + " sh -c \"rm -f " + SocatHandler.LEASES;
+
+    private static EmbeddedSshServer sshServer;
+
+    private Session session;
+    private SocatReaper reaper;
+    private SocatForwarder forwarder;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        sshServer.close();
+    }
+
+    @BeforeEach
+    void createForwarder() throws JSchException {
+        sshServer.resetCommands();
+        sshServer.reply("docker ps --filter label=", 0, "", "");
+        sshServer.reply("docker run -d --rm", 0, CONTAINER_ID + "\n127.0.0.1:32768\n", "");
+        session = EmbeddedSshServer.connect(sshServer.getPort());
+        final JschDockerConfig config = new JschDockerConfig();
+        config.setSocatFlags("");
+        final SessionPool sessionPool = new SessionPool(session, true, () -> {
+            throw new JSchException("no further sessions");
+        }, 1, Duration.ofSeconds(1));
+        reaper = new SocatReaper(sessionPool, config);
+        forwarder = new SocatForwarder(sessionPool, reaper, config);
+    }
+
+    @AfterEach
+    void disconnect() {
+        session.disconnect();
+    }
+
+    @Test
+    void startedContainerIsLeased() throws Exception {
+        final Container container = forwarder.acquire();
+
+        assertEquals(CONTAINER_ID, container.getId());
+        final String run = command("docker run");
+        assertTrue(run.contains("--label " + SocatHandler.SOCAT_LABEL));
+        assertTrue(run.contains("touch " + SocatHandler.LEASES + "/"), run);
+    }
+
+    @Test
+    void lastLeaseRemovesTheContainer() throws Exception {
+        sshServer.reply("rmdir " + SocatHandler.LEASES, 0, "", "");
+        forwarder.acquire();
+
+        forwarder.close();
+        reaper.close();
+
+        final String release = command(RELEASE);
+        assertTrue(release.contains("&& docker rm -f " + CONTAINER_ID), release);
+        assertEquals(0, count("docker rm -f " + CONTAINER_ID));
+    }
+
+    @Test
+    void containerLeasedByOthersIsAdoptedAndKept() throws Exception {
+        sshServer.reply("docker ps --filter label=", 0, CONTAINER_ID + " 127.0.0.1:32768->2377/tcp\n", "");
+        sshServer.reply("touch " + SocatHandler.LEASES, 0, "", "");
+        // another lease is left, so rmdir fails and the container is not removed
+        sshServer.reply("rmdir " + SocatHandler.LEASES, 1, "", "rmdir: '/tmp/jsch-leases': Directory not empty\n");
+
+        final Container container = forwarder.acquire();
+        assertEquals(CONTAINER_ID, container.getId());
+        assertEquals(0, count("docker run"));
+
+        forwarder.close();
+        reaper.close();
+
+        assertEquals(1, count(RELEASE));
+        assertEquals(0, count("docker rm -f " + CONTAINER_ID));
+    }
+
+    @Test
+    void containerStoppingBeforeTheLeaseIsNotAdopted() throws Exception {
+        sshServer.reply("docker ps --filter label=", 0, "0badc0ffee00 127.0.0.1:32769->2377/tcp\n", "");
+        sshServer.reply("docker exec 0badc0ffee00", 1, "", "Error response from daemon: container is not running\n");
+
+        final Container container = forwarder.acquire();
+
+        assertEquals(CONTAINER_ID, container.getId());
+        assertEquals(1, count("docker run"));
+    }
+
+    @Test
+    void deadContainerIsRemovedRegardlessOfLeases() throws Exception {
+        final Container container = forwarder.acquire();
+        sshServer.reply("docker ps -q --filter id=", 0, "", "");
+
+        assertTrue(forwarder.verify(container));
+        reaper.close();
+
+        assertEquals(1, count("docker rm -f " + CONTAINER_ID));
+        assertEquals(0, count(RELEASE));
+    }
+
+    private static String command(String prefix) {
+        return sshServer.getCommands().stream().filter(c -> c.startsWith(prefix)).findFirst()
+                .orElseThrow(() -> new AssertionError("no command " + prefix + " in " + sshServer.getCommands()));
+    }
+
+    private static long count(String prefix) {
+        return sshServer.getCommands().stream().filter(c -> c.startsWith(prefix)).count();
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SocatReaperIT {
+
+    private static EmbeddedSshServer sshServer;
+
+    private Session session;
+    private SocatReaper reaper;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        sshServer.close();
+    }
+
+    @BeforeEach
+    void createReaper() throws JSchException {
+        sshServer.resetCommands();
+        sshServer.reply("docker rm -f", 0, "", "");
+        session = EmbeddedSshServer.connect(sshServer.getPort());
+        final SessionPool sessionPool = new SessionPool(session, true, () -> {
+            throw new JSchException("no further sessions");
+        }, 1, Duration.ofSeconds(1));
+        reaper = new SocatReaper(sessionPool, new JschDockerConfig());
+    }
+
+    @AfterEach
+    void disconnect() {
+        reaper.close();
+        session.disconnect();
+    }
+
+    @Test
+    void containersAreRemovedInOneBatch() {
+        final long start = System.nanoTime();
+        reaper.reap("4f9a");
+        reaper.reap("7c2e");
+        reaper.reap("4f9a");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !sshServer.getCommands().isEmpty());
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(SocatReaper.BATCH_DELAY_MILLIS));
+        assertEquals(Collections.singletonList("docker rm -f 4f9a 7c2e"), sshServer.getCommands());
+    }
+
+    @Test
+    void reapingAfterTheBatchStartsAnotherOne() {
+        reaper.reap("4f9a");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sshServer.getCommands().size() == 1);
+
+        reaper.reap("7c2e");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sshServer.getCommands().size() == 2);
+
+        assertEquals(Arrays.asList("docker rm -f 4f9a", "docker rm -f 7c2e"), sshServer.getCommands());
+    }
+
+    @Test
+    void leasesAreGivenBackInOneBatch() {
+        reaper.release("4f9a", "lease-1");
+        reaper.release("7c2e", "lease-2");
+        reaper.reap("b31d");
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !sshServer.getCommands().isEmpty());
+
+        assertEquals(Collections.singletonList(
+                SocatHandler.releaseCommand("4f9a", "lease-1").trim() + " || echo kept 4f9a ; "
+                        + SocatHandler.releaseCommand("7c2e", "lease-2").trim() + " || echo kept 7c2e ; "
+                        + "docker rm -f b31d"), sshServer.getCommands());
+    }
+
+    @Test
+    void closeRemovesPendingContainers() {
+        reaper.reap("4f9a");
+        reaper.release("7c2e", "lease-1");
+
+        // the scheduled batch is cancelled, so the command was run by close() itself
+        reaper.close();
+
+        assertEquals(Collections.singletonList(SocatReaper.batchCommand(pending("4f9a", null, "7c2e", "lease-1"))
+                .trim()), sshServer.getCommands());
+    }
+
+    @Test
+    void forcedRemovalWinsOverARelease() {
+        reaper.release("4f9a", "lease-1");
+        reaper.reap("4f9a");
+
+        reaper.close();
+
+        assertEquals(Collections.singletonList("docker rm -f 4f9a"), sshServer.getCommands());
+    }
+
+    @Test
+    void nothingIsRemovedAfterClose() throws InterruptedException {
+        reaper.close();
+        reaper.reap("4f9a");
+
+        TimeUnit.MILLISECONDS.sleep(SocatReaper.BATCH_DELAY_MILLIS * 2);
+        assertTrue(sshServer.getCommands().isEmpty());
+    }
+
+    private static Map<String, String> pending(String... idsAndLeases) {
+        final Map<String, String> pending = new LinkedHashMap<>();
+        for (int i = 0; i < idsAndLeases.length; i += 2) {
+            pending.put(idsAndLeases[i], idsAndLeases[i + 1]);
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.api.model.Container;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * starts socat against scripted commands of the {@link EmbeddedSshServer}, so that no docker host is needed
+ */
+class SocatStartIT {
+
+    private static EmbeddedSshServer sshServer;
+
+    private Session session;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        sshServer.close();
+    }
+
+    @BeforeEach
+    void connect() throws JSchException {
+        sshServer.resetCommands();
+        session = EmbeddedSshServer.connect(sshServer.getPort());
+    }
+
+    @AfterEach
+    void disconnect() {
+        session.disconnect();
+    }
+
+    @Test
+    void containerIsStartedWithASingleExec() throws Exception {
+        sshServer.reply("docker run", 0, "4f9a1c2b3d5e\n127.0.0.1:32768\n", "");
+
+        final Container container = SocatHandler.startSocat(session, "-d", "", null);
+
+        assertEquals("4f9a1c2b3d5e", container.getId());
+        assertEquals(Integer.valueOf(32768), container.getPorts()[0].getPublicPort());
+        assertEquals(1, sshServer.getCommands().size());
+        final String command = sshServer.getCommands().get(0);
+        assertTrue(command.startsWith("docker run -d --rm --name jsch-socat-"), command);
+        assertTrue(command.contains(" && docker port jsch-socat-"), command);
+        assertTrue(command.contains(SocatHandler.SOCAT_IMAGE + " -d"), command);
+        // not adoptable without a lease
+        assertFalse(command.contains("--label"), command);
+        assertFalse(command.contains("docker exec"), command);
+    }
+
+    @Test
+    void leaseIsTakenWithinTheSameExec() throws Exception {
+        sshServer.reply("docker run", 0, "4f9a1c2b3d5e\n127.0.0.1:32768\n", "");
+
+        SocatHandler.startSocat(session, "", "/run/docker.sock", null, "lease-1", TransportMetrics.NOOP);
+
+        assertEquals(1, sshServer.getCommands().size());
+        final String command = sshServer.getCommands().get(0);
+        assertTrue(command.contains("--label " + SocatHandler.SOCAT_LABEL + "=/run/docker.sock"), command);
+        assertTrue(command.contains("touch " + SocatHandler.LEASES + "/lease-1"), command);
+    }
+
+    @Test
+    void fileToSourceIsPartOfTheExec() throws Exception {
+        sshServer.reply("docker run", 0, "4f9a1c2b3d5e\n127.0.0.1:32768\n", "");
+
+        SocatHandler.startSocat(session, "", "", "~/.profile");
+
+        assertEquals(1, sshServer.getCommands().size());
+        assertTrue(sshServer.getCommands().get(0).startsWith("source ~/.profile &&  docker run"));
+    }
+
+    @Test
+    void missingPortFails() {
+        sshServer.reply("docker run", 0, "4f9a1c2b3d5e\n", "");
+
+        final IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> SocatHandler.startSocat(session, "", "", null));
+        assertTrue(e.getMessage().startsWith("no published port found for socat container 4f9a1c2b3d5e"));
+    }
+
+    @Test
+    void failingRunIsReported() {
+        sshServer.reply("docker run", 125, "", "docker: Error response from daemon: pull access denied\n");
+
+        final RuntimeException e = assertThrows(RuntimeException.class,
+                () -> SocatHandler.startSocat(session, "", "", null));
+        assertTrue(e.getMessage().contains("pull access denied"), e.getMessage());
+        assertEquals(1, sshServer.getCommands().size());
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.jcraft.jsch.ConfigRepository;
+import com.jcraft.jsch.HostKeyRepository;
+import com.jcraft.jsch.Identity;
+import com.jcraft.jsch.IdentityRepository;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.KeyPair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SshFileCacheIT {
+
+    @TempDir
+    Path sshDir;
+
+    @AfterEach
+    void invalidate() {
+        SshFileCache.invalidateAll();
+    }
+
+    @Test
+    void configIsReloadedWhenModified() throws Exception {
+        final Path file = sshDir.resolve("config");
+        Files.write(file, Collections.singletonList("Host docker\n  Port 2222\n"), StandardCharsets.UTF_8);
+
+        final ConfigRepository first = SshFileCache.config(file.toFile());
+        assertSame(first, SshFileCache.config(file.toFile()));
+        assertEquals(2222, first.getConfig("docker").getPort());
+
+        Files.write(file, Collections.singletonList("Host docker\n  Port 2223\n"), StandardCharsets.UTF_8);
+        file.toFile().setLastModified(file.toFile().lastModified() + 1000);
+
+        final ConfigRepository second = SshFileCache.config(file.toFile());
+        assertNotSame(first, second);
+        assertEquals(2223, second.getConfig("docker").getPort());
+    }
+
+    @Test
+    void cachedFilesAreHiddenFromJsch() throws Exception {
+        final Path file = sshDir.resolve("config");
+        Files.write(file, Arrays.asList("Host docker", "  IdentityFile ~/.ssh/docker_key",
+                "  UserKnownHostsFile /etc/docker_known_hosts"), StandardCharsets.UTF_8);
+
+        final ConfigRepository config = SshFileCache.config(file.toFile());
+        assertNull(config.getConfig("docker").getValues(SshFileCache.IDENTITY_FILE));
+        assertNull(config.getConfig("docker").getValue(SshFileCache.USER_KNOWN_HOSTS_FILE));
+        assertEquals(Collections.singletonList(new File(System.getProperty("user.home") + "/.ssh/docker_key")),
+                SshFileCache.identityFiles(config, "docker"));
+        assertEquals(new File("/etc/docker_known_hosts"), SshFileCache.userKnownHostsFile(config, "docker"));
+    }
+
+    @Test
+    void knownHostsAndIdentitiesAreShared() throws Exception {
+        final Path knownHosts = sshDir.resolve("known_hosts");
+        Files.write(knownHosts, Collections.singletonList(
+                "example.com ssh-ed25519 AAAAC3NzaC1lZDI1NTE5AAAAIOMqqnkVzrm0SdG6UOoqKLsabgH5C9okWi0dh2l9GKJl"),
+                StandardCharsets.UTF_8);
+        final HostKeyRepository hostKeys = SshFileCache.knownHosts(knownHosts.toFile());
+        assertSame(hostKeys, SshFileCache.knownHosts(knownHosts.toFile()));
+        assertEquals(1, hostKeys.getHostKey().length);
+
+        final Path key = sshDir.resolve("id_rsa");
+        final KeyPair keyPair = KeyPair.genKeyPair(new JSch(), KeyPair.RSA, 2048);
+        keyPair.writePrivateKey(key.toString());
+        keyPair.dispose();
+
+        final Identity identity = SshFileCache.identity(key.toFile());
+        assertSame(identity, SshFileCache.identity(key.toFile()));
+        identity.clear();
+        assertEquals("ssh-rsa", identity.getAlgName());
+    }
+
+    @Test
+    void configIdentitiesAreTriedAfterTheExplicitOnes() throws Exception {
+        final Path explicitKey = writeKey("id_explicit");
+        final Path configKey = writeKey("id_config");
+        final Path config = sshDir.resolve("config");
+        Files.write(config, Arrays.asList("Host docker", "  IdentityFile " + configKey), StandardCharsets.UTF_8);
+        final JSch jSch = new JSch();
+        jSch.addIdentity(SshFileCache.identity(explicitKey.toFile()), null);
+        final IdentityRepository explicit = jSch.getIdentityRepository();
+
+        final IdentityRepository repository = SshFileCache.withConfigIdentities(explicit,
+                SshFileCache.config(config.toFile()), "docker");
+
+        assertEquals(Arrays.asList(explicitKey.toString(), configKey.toString()), names(repository));
+        // the explicit repository is left alone
+        assertEquals(Collections.singletonList(explicitKey.toString()), names(explicit));
+    }
+
+    @Test
+    void unloadableConfigIdentityIsSkipped() throws Exception {
+        final Path broken = sshDir.resolve("id_broken");
+        Files.write(broken, Collections.singletonList("not a key"), StandardCharsets.UTF_8);
+        final Path key = writeKey("id_rsa");
+        final Path config = sshDir.resolve("config");
+        Files.write(config, Arrays.asList("Host docker", "  IdentityFile " + broken, "  IdentityFile " + key),
+                StandardCharsets.UTF_8);
+
+        final IdentityRepository repository = SshFileCache.withConfigIdentities(
+                new JSch().getIdentityRepository(), SshFileCache.config(config.toFile()), "docker");
+
+        assertEquals(Collections.singletonList(key.toString()), names(repository));
+    }
+
+    @Test
+    void repositoryIsKeptWithoutConfigIdentities() throws Exception {
+        final Path config = sshDir.resolve("config");
+        Files.write(config, Arrays.asList("Host docker", "  Port 2222"), StandardCharsets.UTF_8);
+        final IdentityRepository explicit = new JSch().getIdentityRepository();
+
+        assertSame(explicit, SshFileCache.withConfigIdentities(explicit, SshFileCache.config(config.toFile()),
+                "docker"));
+    }
+
+    @Test
+    void missingFileIsNotCached() throws Exception {
+        assertNull(SshFileCache.config(sshDir.resolve("config").toFile()));
+        assertNull(SshFileCache.knownHosts(sshDir.resolve("known_hosts").toFile()));
+        assertNull(SshFileCache.identity(sshDir.resolve("id_rsa").toFile()));
+    }
+
+    private Path writeKey(String name) throws Exception {
+        final Path key = sshDir.resolve(name);
+        final KeyPair keyPair = KeyPair.genKeyPair(new JSch(), KeyPair.ECDSA, 256);
+        keyPair.writePrivateKey(key.toString());
+        keyPair.dispose();
+        return key;
+    }
+
+    private static List<String> names(IdentityRepository repository) {
+        return repository.getIdentities().stream().map(Identity::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import okio.Buffer;
+import okio.ForwardingSink;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * runs the pump against a stand-in for the ssh channel, which counts the flushes, i.e. the ssh packets sent
+ */
+class StdinPumpIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StdinPumpIT.class);
+
+    private static final int MB = 1024 * 1024;
+
+    private final Buffer channel = new Buffer();
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final AtomicLong flushedBytes = new AtomicLong();
+
+    private final ForwardingSink standIn = new ForwardingSink(channel) {
+        @Override
+        public void write(Buffer source, long byteCount) throws IOException {
+            super.write(source, byteCount);
+            flushedBytes.addAndGet(byteCount);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            super.flush();
+            flushes.incrementAndGet();
+        }
+    };
+
+    @Test
+    @Timeout(value = 10)
+    void bulkInputIsSentInLargeChunks() throws IOException {
+        final byte[] input = new byte[8 * MB];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (byte) i;
+        }
+
+        final long start = System.nanoTime();
+        final long pumped = new StdinPump(new ByteArrayInputStream(input), Okio.buffer(standIn)).pump();
+        final long elapsedNanos = System.nanoTime() - start;
+
+        assertEquals(input.length, pumped);
+        assertEquals(input.length, channel.size());
+        assertArrayEquals(input, channel.readByteArray());
+        // a byte-wise pump flushes once per byte, the buffered pump once per input chunk at most
+        assertTrue(flushes.get() <= input.length / StdinPump.BUFFER_SIZE + 2,
+                "too many flushes: " + flushes.get());
+        LOG.info("pumped {} MB in {} ms with {} flushes", input.length / MB,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), flushes.get());
+    }
+
+    @Test
+    @Timeout(value = 10)
+    void interactiveInputIsFlushedRightAway() throws Exception {
+        final PipedOutputStream terminal = new PipedOutputStream();
+        final PipedInputStream stdin = new PipedInputStream(terminal);
+        final CompletableFuture<Long> pumped = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new StdinPump(stdin, Okio.buffer(standIn)).pump();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        terminal.write('l');
+        terminal.flush();
+        await().atMost(1, TimeUnit.SECONDS).until(() -> flushedBytes.get() == 1);
+
+        terminal.write("s\n".getBytes());
+        terminal.flush();
+        await().atMost(1, TimeUnit.SECONDS).until(() -> flushedBytes.get() == 3);
+
+        terminal.close();
+        assertEquals(3, pumped.get(5, TimeUnit.SECONDS));
+        assertEquals("ls\n", channel.readUtf8());
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TransferableResponseIT {
+
+    private static final byte[] DATA = new byte[3 * 1024 * 1024 + 11];
+
+    private static HttpServer httpServer;
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        new Random(42).nextBytes(DATA);
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/fixed", exchange -> {
+            exchange.sendResponseHeaders(200, DATA.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(DATA);
+            }
+        });
+        httpServer.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(DATA);
+            }
+        });
+        httpServer.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        httpServer.stop(0);
+    }
+
+    @Test
+    void transferToFileReportsProgress(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("image.tar");
+        final List<Long> progress = new ArrayList<>();
+        try (JschDockerHttpClient.OkResponse response = execute("/fixed")) {
+            final long transferred = response.transferTo(file, (bytes, contentLength) -> {
+                assertEquals(DATA.length, contentLength);
+                progress.add(bytes);
+            });
+
+            assertEquals(DATA.length, transferred);
+            assertEquals(DATA.length, response.getBytesTransferred());
+        }
+        assertArrayEquals(DATA, Files.readAllBytes(file));
+        assertFalse(progress.isEmpty());
+        assertEquals(DATA.length, (long) progress.get(progress.size() - 1));
+    }
+
+    @Test
+    void transferContinuesWhereTheStreamStopped() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JschDockerHttpClient.OkResponse response = execute("/chunked")) {
+            final InputStream body = response.getBody();
+            final byte[] head = new byte[1000];
+            int read = 0;
+            while (read < head.length) {
+                read += body.read(head, read, head.length - read);
+            }
+            final List<Long> contentLengths = new ArrayList<>();
+            final long transferred = response.transferTo(out, (bytes, contentLength) -> contentLengths.add(contentLength));
+
+            assertEquals(DATA.length - head.length, transferred);
+            assertEquals(DATA.length, response.getBytesTransferred());
+            assertEquals(-1, response.getContentLength());
+            assertArrayEquals(Arrays.copyOf(DATA, head.length), head);
+            assertEquals(-1, (long) contentLengths.get(0));
+        }
+        assertArrayEquals(Arrays.copyOfRange(DATA, 1000, DATA.length), out.toByteArray());
+    }
+
+    private JschDockerHttpClient.OkResponse execute(String path) throws IOException {
+        return new JschDockerHttpClient.OkResponse(client.newCall(new Request.Builder()
+                .url("http://127.0.0.1:" + httpServer.getAddress().getPort() + path)
+                .build()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.mwiede.dockerjava.jsch;
+
+import com.github.dockerjava.transport.DockerHttpClient;
+import com.github.dockerjava.transport.DockerHttpClient.Request;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransportMetricsIT {
+
+    private static EmbeddedSshServer sshServer;
+    private static HttpServer httpServer;
+
+    @BeforeAll
+    static void startServers() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", exchange -> {
+            final byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().contains("missing") ? 404 : 200,
+                    body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        httpServer.start();
+        sshServer = new EmbeddedSshServer();
+    }
+
+    @AfterAll
+    static void stopServers() throws IOException {
+        sshServer.close();
+        httpServer.stop(0);
+    }
+
+    @Test
+    void pathsAreTurnedIntoEndpointTemplates() {
+        assertEquals("/_ping", EndpointTemplates.of("/_ping"));
+        assertEquals("/containers/json", EndpointTemplates.of("/v1.41/containers/json?all=1"));
+        assertEquals("/containers/create", EndpointTemplates.of("/containers/create?name=app"));
+        assertEquals("/containers/{id}/json", EndpointTemplates.of("/v1.41/containers/4f2a9c/json"));
+        assertEquals("/containers/{id}", EndpointTemplates.of("/containers/4f2a9c?force=1"));
+        assertEquals("/exec/{id}/start", EndpointTemplates.of("/exec/77ab/start"));
+        assertEquals("/images/json", EndpointTemplates.of("/images/json"));
+        assertEquals("/images/{name}/json", EndpointTemplates.of("/images/registry.example.com/team/app:1/json"));
+        assertEquals("/images/{name}/push", EndpointTemplates.of("/images/team/app/push?tag=1"));
+        assertEquals("/images/{name}", EndpointTemplates.of("/images/team/app:1"));
+        assertEquals("/plugins/pull", EndpointTemplates.of("/plugins/pull?remote=vieux/sshfs"));
+        assertEquals("/volumes/{id}", EndpointTemplates.of("/volumes/data"));
+        assertEquals("/swarm/init", EndpointTemplates.of("/swarm/init"));
+    }
+
+    @Test
+    void remoteCommandsAreNamedByProgramAndSubCommand() {
+        assertEquals("docker run", RemoteCommandExecutor.commandName(" docker run -d --rm alpine/socat"));
+        assertEquals("docker ps", RemoteCommandExecutor.commandName("docker ps -q"));
+        assertEquals("uname", RemoteCommandExecutor.commandName("uname -a"));
+    }
+
+    @Test
+    void transportIsReportedToMicrometer() throws Exception {
+        final MeterRegistry registry = new SimpleMeterRegistry();
+        try (JschDockerHttpClient client = new JschDockerHttpClient.Builder()
+                .dockerHost(URI.create("ssh://" + EmbeddedSshServer.USER + "@127.0.0.1:" + sshServer.getPort()))
+                .userInfo(EmbeddedSshServer.passwordUserInfo())
+                .useTcp(httpServer.getAddress().getPort())
+                .metrics(new MicrometerTransportMetrics(registry))
+                .build()) {
+
+            execute(client, "/v1.41/containers/4f2a9c/json");
+            execute(client, "/v1.41/containers/77ab/json");
+            execute(client, "/v1.41/containers/missing/json");
+
+            final Timer requests = registry.find("jsch.requests").tag("endpoint", "/containers/{id}/json")
+                    .tag("status", "200").timer();
+            assertNotNull(requests);
+            assertEquals(2, requests.count());
+            assertEquals(1, registry.get("jsch.requests").tag("status", "404").tag("outcome", "ERROR").timer()
+                    .count());
+            assertEquals(1, registry.get("jsch.channel.open").tag("mode", "tcp").timer().count());
+            assertTrue(registry.get("jsch.bytes.sent").counter().count() > 0);
+            assertTrue(registry.get("jsch.bytes.received").counter().count() > 0);
+            assertEquals(0, registry.get("jsch.channels.active").gauge().value());
+            assertEquals(1, registry.get("jsch.channels.idle").gauge().value());
+            assertEquals(1, registry.get("jsch.sessions.open").gauge().value());
+        }
+        assertEquals(0, registry.get("jsch.sessions.open").gauge().value());
+    }
+
+    private static void execute(DockerHttpClient client, String path) throws IOException {
+        try (DockerHttpClient.Response response = client.execute(Request.builder().method(Request.Method.GET)
+                .path(path).build());
+             InputStream body = response.getBody()) {
+            while (body.read() != -1) {
+                // drain, so that the connection is reused
+            }
+        }
+    }
+}